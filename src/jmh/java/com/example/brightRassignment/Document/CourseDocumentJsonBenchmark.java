@@ -0,0 +1,53 @@
+package com.example.brightRassignment.Document;
+
+import com.example.brightRassignment.support.Benchmarks;
+import com.example.brightRassignment.support.SyntheticCourses;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson (de)serialization of courses with the application's mapper settings, one document and a
+ * page of documents at a time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CourseDocumentJsonBenchmark {
+
+    @Param({"1", "10", "100"})
+    int pageSize;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<CourseDocument> page;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = Benchmarks.objectMapper();
+        writer = mapper.writerFor(new TypeReference<List<CourseDocument>>() {});
+        reader = mapper.readerFor(new TypeReference<List<CourseDocument>>() {});
+        page = SyntheticCourses.generate(pageSize);
+        json = writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public List<CourseDocument> deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+}
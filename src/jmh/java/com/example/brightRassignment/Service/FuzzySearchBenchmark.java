@@ -0,0 +1,70 @@
+package com.example.brightRassignment.Service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import com.example.brightRassignment.Document.CourseDocument;
+import com.example.brightRassignment.support.Benchmarks;
+import com.example.brightRassignment.support.FakeElasticsearchTransport;
+import com.example.brightRassignment.support.SyntheticCourses;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side cost of an Elasticsearch search: building the query through the builder lambdas,
+ * encoding the request, decoding a page of hits and the cache miss path. The cluster is replaced by
+ * {@link FakeElasticsearchTransport}, so nothing here measures Elasticsearch itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FuzzySearchBenchmark {
+
+    private static final Instant START = Instant.parse("2025-10-01T00:00:00Z");
+
+    @Param({"10", "100"})
+    int pageSize;
+
+    private SearchService searchService;
+    private FakeElasticsearchTransport transport;
+    private List<String> keywords;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<CourseDocument> hits = SyntheticCourses.generate(pageSize);
+        transport = Benchmarks.transport(hits);
+        searchService = Benchmarks.searchService(null, new ElasticsearchClient(transport));
+        keywords = SyntheticCourses.subjects();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (transport.requestBytes() == 0) {
+            throw new IllegalStateException("No request bodies were encoded");
+        }
+    }
+
+    /** Rotates keywords so the query text is not a compile-time constant. */
+    private String keyword() {
+        next = (next + 1) % keywords.size();
+        return keywords.get(next);
+    }
+
+    @Benchmark
+    public List<CourseDocument> keywordOnly() throws IOException {
+        return searchService.searchCoursesFuzzy(keyword(), null, null, null, null,
+                null, null, null, null, 0, pageSize);
+    }
+
+    @Benchmark
+    public List<CourseDocument> keywordWithFilters() throws IOException {
+        return searchService.searchCoursesFuzzy(keyword(), 8, 14, "Science", "COURSE",
+                5.0, 40.0, START, "priceAsc", 0, pageSize);
+    }
+}
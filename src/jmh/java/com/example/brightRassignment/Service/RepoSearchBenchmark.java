@@ -0,0 +1,93 @@
+package com.example.brightRassignment.Service;
+
+import com.example.brightRassignment.Document.CourseDocument;
+import com.example.brightRassignment.support.Benchmarks;
+import com.example.brightRassignment.support.SyntheticCourses;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory fallback search: the original stream pipeline over document objects next to the
+ * columnar {@link CatalogSnapshot} answering the same queries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class RepoSearchBenchmark {
+
+    private static final Instant START = Instant.parse("2025-10-01T00:00:00Z");
+
+    @Param({"1000", "100000", "1000000"})
+    int catalogSize;
+
+    @Param({"priceAsc", "priceDesc", "nextSessionDate"})
+    String sort;
+
+    private List<CourseDocument> catalog;
+    private SearchService searchService;
+    private Comparator<CourseDocument> comparator;
+    private CatalogSnapshot snapshot;
+
+    @Setup
+    public void setUp() {
+        catalog = SyntheticCourses.generate(catalogSize);
+        searchService = Benchmarks.searchService(Benchmarks.repository(catalog), null);
+        comparator = searchService.getComparator(sort);
+        snapshot = new CatalogSnapshot(null, false, Duration.ZERO);
+        snapshot.load(catalog);
+    }
+
+    @Benchmark
+    public SearchService.RepoSearchResult<CourseDocument> keyword() {
+        return searchService.searchCoursesRepo("robotics", null, null, null, null,
+                null, null, null, sort, 0, 10);
+    }
+
+    @Benchmark
+    public SearchService.RepoSearchResult<CourseDocument> filtered() {
+        return searchService.searchCoursesRepo(null, 8, 14, "Science", null,
+                5.0, 40.0, START, sort, 0, 10);
+    }
+
+    /** No predicates at all: the sort over every document dominates. */
+    @Benchmark
+    public SearchService.RepoSearchResult<CourseDocument> unfilteredDeepPage() {
+        return searchService.searchCoursesRepo(null, null, null, null, null,
+                null, null, null, sort, 50, 20);
+    }
+
+    /** The comparator alone, sorting a copy of the catalog. */
+    @Benchmark
+    public List<CourseDocument> sortOnly() {
+        List<CourseDocument> copy = new ArrayList<>(catalog);
+        copy.sort(comparator);
+        return copy;
+    }
+
+    @Benchmark
+    public SearchService.RepoSearchResult<CourseDocument> snapshotKeyword() {
+        return snapshot.search("robotics", null, null, null, null,
+                null, null, null, sort, 0, 10);
+    }
+
+    @Benchmark
+    public SearchService.RepoSearchResult<CourseDocument> snapshotFiltered() {
+        return snapshot.search(null, 8, 14, "Science", null,
+                5.0, 40.0, START, sort, 0, 10);
+    }
+
+    @Benchmark
+    public SearchService.RepoSearchResult<CourseDocument> snapshotUnfilteredDeepPage() {
+        return snapshot.search(null, null, null, null, null,
+                null, null, null, sort, 50, 20);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.brightRassignment.support;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.example.brightRassignment.Document.CourseDocument;
+import com.example.brightRassignment.Repository.CourseRepository;
+import com.example.brightRassignment.Service.CatalogSnapshot;
+import com.example.brightRassignment.Service.ElasticsearchGuard;
+import com.example.brightRassignment.Service.LocalSuggester;
+import com.example.brightRassignment.Service.SearchCache;
+import com.example.brightRassignment.Service.SearchMetrics;
+import com.example.brightRassignment.Service.SearchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Shared fixtures for the JMH benchmarks. */
+public final class Benchmarks {
+
+    private Benchmarks() {}
+
+    /** Same mapper configuration as the application's Elasticsearch client. */
+    public static ObjectMapper objectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return mapper;
+    }
+
+    /** Repository stub whose findAll() returns the given catalog; every other method is unsupported. */
+    public static CourseRepository repository(List<CourseDocument> catalog) {
+        return (CourseRepository) Proxy.newProxyInstance(
+                CourseRepository.class.getClassLoader(),
+                new Class<?>[]{CourseRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll" -> {
+                        if (args == null || args.length == 0) yield catalog;
+                        throw new UnsupportedOperationException("findAll" + List.of(method.getParameterTypes()));
+                    }
+                    case "count" -> (long) catalog.size();
+                    case "toString" -> "CourseRepository[" + catalog.size() + "]";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * SearchService wired outside Spring. The response cache keeps nothing (zero size and TTL), so every
+     * call pays the full miss path; the suggester stays on the Elasticsearch engine and the catalog
+     * snapshot is left unloaded, so repository search takes the stream path. Limits are wide open
+     * and the breaker never trips, so load shedding stays out of the measurement.
+     */
+    public static SearchService searchService(CourseRepository repository, ElasticsearchClient client) {
+        ObjectMapper mapper = objectMapper();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SearchService service = new SearchService(repository, mapper,
+                new SearchCache(mapper, registry, 0, Duration.ZERO, Duration.ofSeconds(1)),
+                new LocalSuggester(null, "elasticsearch", Duration.ZERO),
+                new SearchMetrics(registry), new CatalogSnapshot(null, false, Duration.ZERO),
+                new ElasticsearchGuard(registry, 1, 10_000, Duration.ofHours(1), 10_000, Duration.ofHours(1),
+                        10_000, Duration.ofHours(1), Integer.MAX_VALUE, Duration.ZERO), 3);
+        ReflectionTestUtils.setField(service, "client", client);
+        return service;
+    }
+
+    /** Client over a fake transport that answers every search with the given hits. */
+    public static FakeElasticsearchTransport transport(List<CourseDocument> hits) throws IOException {
+        ObjectMapper mapper = objectMapper();
+        List<Map<String, Object>> rawHits = hits.stream().map(c -> {
+            Map<String, Object> hit = new LinkedHashMap<>();
+            hit.put("_index", "courses-v1");
+            hit.put("_id", c.getId());
+            hit.put("_score", 1.0);
+            hit.put("_source", c);
+            return hit;
+        }).toList();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("took", 1);
+        response.put("timed_out", false);
+        response.put("_shards", Map.of("total", 1, "successful", 1, "skipped", 0, "failed", 0));
+        response.put("hits", Map.of("total", Map.of("value", hits.size(), "relation", "eq"), "hits", rawHits));
+        return new FakeElasticsearchTransport(new JacksonJsonpMapper(mapper), mapper.writeValueAsBytes(response));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.brightRassignment.support;
+
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.transport.ElasticsearchTransport;
+import co.elastic.clients.transport.Endpoint;
+import co.elastic.clients.transport.JsonEndpoint;
+import co.elastic.clients.transport.TransportOptions;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * In-process transport: serializes every request body exactly as the real transport would, then
+ * answers with a canned JSON response. Benchmarks see the full client-side cost of building,
+ * encoding and decoding a request without any network or cluster in the measurement.
+ */
+public class FakeElasticsearchTransport implements ElasticsearchTransport {
+
+    private final JsonpMapper mapper;
+    private final byte[] response;
+    private long requestBytes;
+
+    public FakeElasticsearchTransport(JsonpMapper mapper, byte[] response) {
+        this.mapper = mapper;
+        this.response = response;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <RequestT, ResponseT, ErrorT> ResponseT performRequest(RequestT request,
+                                                                  Endpoint<RequestT, ResponseT, ErrorT> endpoint,
+                                                                  TransportOptions options) throws IOException {
+        Object body = endpoint.body(request);
+        if (body != null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+            try (JsonGenerator generator = mapper.jsonProvider().createGenerator(out)) {
+                mapper.serialize(body, generator);
+            }
+            requestBytes += out.size();
+        }
+        try (JsonParser parser = mapper.jsonProvider().createParser(new ByteArrayInputStream(response))) {
+            return ((JsonEndpoint<RequestT, ResponseT, ErrorT>) endpoint).responseDeserializer().deserialize(parser, mapper);
+        }
+    }
+
+    @Override
+    public <RequestT, ResponseT, ErrorT> CompletableFuture<ResponseT> performRequestAsync(RequestT request,
+                                                                                         Endpoint<RequestT, ResponseT, ErrorT> endpoint,
+                                                                                         TransportOptions options) {
+        try {
+            return CompletableFuture.completedFuture(performRequest(request, endpoint, options));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /** Total request body bytes encoded so far; lets a benchmark consume the output. */
+    public long requestBytes() {
+        return requestBytes;
+    }
+
+    @Override
+    public JsonpMapper jsonpMapper() {
+        return mapper;
+    }
+
+    @Override
+    public TransportOptions options() {
+        return null;
+    }
+
+    @Override
+    public void close() {}
+}
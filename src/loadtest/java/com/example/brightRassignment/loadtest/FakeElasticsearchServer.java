@@ -0,0 +1,560 @@
+package com.example.brightRassignment.loadtest;
+
+import com.example.brightRassignment.Document.CourseDocument;
+import com.example.brightRassignment.Service.CourseIngestService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * In-process HTTP stand-in for the slice of the Elasticsearch API the application uses: search
+ * (bool/term/range/match queries, sort, search_after, source filtering, point-in-time ids,
+ * completion suggestions, terms facets), bulk, mget and cluster health.
+ * <p>
+ * Queries are evaluated by scanning the documents in id order. Text matching is plain substring
+ * matching and scores are constant, so results are plausible rather than identical to a real
+ * cluster; the point is to exercise the application's full HTTP, JSON and concurrency path.
+ */
+public class FakeElasticsearchServer implements AutoCloseable {
+
+    private static final String INDEX = "courses-v1";
+
+    private final ObjectMapper mapper;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentSkipListMap<String, ObjectNode> documents = new ConcurrentSkipListMap<>();
+
+    public FakeElasticsearchServer(ObjectMapper mapper) throws IOException {
+        // Without TCP_NODELAY small responses stall on delayed ACKs and every call gains ~40ms
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        this.mapper = mapper;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public FakeElasticsearchServer start() {
+        server.start();
+        return this;
+    }
+
+    public String uri() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /** Indexes courses directly, with the completion input the ingest pipeline would add. */
+    public void load(Iterable<CourseDocument> courses) {
+        for (CourseDocument course : courses) {
+            if (course.getAutocomplete() == null && course.getTitle() != null) {
+                course.setAutocomplete(new Completion(new String[]{course.getTitle()}));
+            }
+            CourseIngestService.deriveFilterFields(course);
+            documents.put(course.getId(), mapper.valueToTree(course));
+        }
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // ===== Routing =====
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            JsonNode body = readBody(exchange);
+            Object response;
+            int status = 200;
+
+            if (path.endsWith("/_search")) {
+                response = search(body);
+            } else if (path.endsWith("/_pit") && "POST".equals(method)) {
+                response = Map.of("id", UUID.randomUUID().toString());
+            } else if (path.equals("/_pit") && "DELETE".equals(method)) {
+                response = Map.of("succeeded", true, "num_freed", 1);
+            } else if (path.endsWith("/_bulk")) {
+                response = bulk(exchange);
+            } else if (path.endsWith("/_mget")) {
+                response = mget(body);
+            } else if (path.equals("/_cluster/health")) {
+                response = Map.of("cluster_name", "loadtest", "status", "green", "timed_out", false,
+                        "number_of_nodes", 1, "number_of_data_nodes", 1);
+            } else if (path.equals("/")) {
+                response = Map.of("name", "fake", "cluster_name", "loadtest", "cluster_uuid", "loadtest",
+                        "version", Map.of("number", "8.13.4"), "tagline", "You Know, for Search");
+            } else {
+                status = 404;
+                response = error(404, "resource_not_found_exception", method + " " + path + " is not supported by the fake");
+            }
+            respond(exchange, status, response);
+        } catch (RuntimeException e) {
+            respond(exchange, 500, error(500, "exception", String.valueOf(e)));
+        }
+    }
+
+    // The bulk body is NDJSON, so it is read separately; everything else is a single JSON document
+    private JsonNode readBody(HttpExchange exchange) throws IOException {
+        if (exchange.getRequestURI().getPath().endsWith("/_bulk")) return null;
+        byte[] bytes = requestBytes(exchange);
+        return bytes.length == 0 ? mapper.createObjectNode() : mapper.readTree(bytes);
+    }
+
+    private static byte[] requestBytes(HttpExchange exchange) throws IOException {
+        InputStream in = exchange.getRequestBody();
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            in = new GZIPInputStream(in);
+        }
+        return in.readAllBytes();
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        // The Java client refuses responses without this header
+        exchange.getResponseHeaders().set("X-Elastic-Product", "Elasticsearch");
+        boolean head = "HEAD".equals(exchange.getRequestMethod());
+        exchange.sendResponseHeaders(status, head ? -1 : bytes.length);
+        if (!head) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static Map<String, Object> error(int status, String type, String reason) {
+        return Map.of("error", Map.of("root_cause", List.of(), "type", type, "reason", reason), "status", status);
+    }
+
+    // ===== Search =====
+
+    private ObjectNode search(JsonNode request) {
+        Predicate<JsonNode> query = compile(request.path("query"));
+        Predicate<JsonNode> postFilter = compile(request.path("post_filter"));
+        List<SortKey> sort = sortKeys(request.path("sort"));
+
+        List<ObjectNode> matched = new ArrayList<>();
+        for (ObjectNode doc : documents.values()) {
+            if (query.test(doc)) matched.add(doc);
+        }
+        List<ObjectNode> hits = new ArrayList<>();
+        for (ObjectNode doc : matched) {
+            if (postFilter.test(doc)) hits.add(doc);
+        }
+        if (!sort.isEmpty()) {
+            hits.sort((a, b) -> compareSort(sort, sortValues(sort, a), sortValues(sort, b)));
+        }
+        JsonNode searchAfter = request.path("search_after");
+        if (searchAfter.isArray() && !sort.isEmpty()) {
+            List<JsonNode> after = new ArrayList<>();
+            searchAfter.forEach(after::add);
+            hits.removeIf(doc -> compareSort(sort, sortValues(sort, doc), after) <= 0);
+        }
+
+        int from = request.path("from").asInt(0);
+        int size = request.path("size").asInt(10);
+        ObjectNode response = mapper.createObjectNode();
+        response.put("took", 1);
+        response.put("timed_out", false);
+        response.putObject("_shards").put("total", 1).put("successful", 1).put("skipped", 0).put("failed", 0);
+        if (request.hasNonNull("pit")) {
+            response.put("pit_id", request.path("pit").path("id").asText());
+        }
+
+        ObjectNode hitsNode = response.putObject("hits");
+        if (!request.path("track_total_hits").isBoolean() || request.path("track_total_hits").asBoolean()) {
+            hitsNode.putObject("total").put("value", hits.size()).put("relation", "eq");
+        }
+        hitsNode.putNull("max_score");
+        ArrayNode page = hitsNode.putArray("hits");
+        for (int i = from; i < Math.min(hits.size(), from + size); i++) {
+            ObjectNode doc = hits.get(i);
+            ObjectNode hit = page.addObject();
+            hit.put("_index", INDEX);
+            hit.put("_id", doc.path("id").asText());
+            hit.put("_score", 1.0);
+            hit.set("_source", project(doc, request.path("_source")));
+            if (!sort.isEmpty()) {
+                ArrayNode values = hit.putArray("sort");
+                sortValues(sort, doc).forEach(values::add);
+            }
+        }
+
+        if (request.has("aggregations") || request.has("aggs")) {
+            JsonNode aggs = request.has("aggregations") ? request.path("aggregations") : request.path("aggs");
+            ObjectNode out = aggregations(aggs, matched);
+            if (!out.isEmpty()) response.set("aggregations", out);
+        }
+        if (request.has("suggest")) {
+            response.set("suggest", suggest(request.path("suggest")));
+        }
+        return response;
+    }
+
+    private ObjectNode project(ObjectNode doc, JsonNode source) {
+        if (!source.isObject()) return doc;
+        JsonNode includes = source.path("includes");
+        JsonNode excludes = source.path("excludes");
+        ObjectNode projected;
+        if (includes.isArray() && !includes.isEmpty()) {
+            projected = mapper.createObjectNode();
+            includes.forEach(f -> {
+                if (doc.has(f.asText())) projected.set(f.asText(), doc.get(f.asText()));
+            });
+        } else {
+            projected = doc.deepCopy();
+        }
+        if (excludes.isArray()) excludes.forEach(f -> projected.remove(f.asText()));
+        return projected;
+    }
+
+    // ===== Query evaluation =====
+
+    private Predicate<JsonNode> compile(JsonNode query) {
+        if (query == null || query.isMissingNode() || query.isEmpty()) return doc -> true;
+        Map.Entry<String, JsonNode> clause = query.fields().next();
+        JsonNode spec = clause.getValue();
+        return switch (clause.getKey()) {
+            case "bool" -> bool(spec);
+            case "term" -> term(spec);
+            case "terms" -> terms(spec);
+            case "range" -> range(spec);
+            case "match" -> {
+                Map.Entry<String, JsonNode> field = spec.fields().next();
+                JsonNode options = field.getValue();
+                String text = options.isObject() ? options.path("query").asText() : options.asText();
+                yield text(List.of(field.getKey()), text, "and".equalsIgnoreCase(options.path("operator").asText()));
+            }
+            case "multi_match" -> {
+                List<String> fields = new ArrayList<>();
+                spec.path("fields").forEach(f -> fields.add(f.asText()));
+                yield text(fields, spec.path("query").asText(), "and".equalsIgnoreCase(spec.path("operator").asText()));
+            }
+            case "exists" -> doc -> doc.hasNonNull(spec.path("field").asText());
+            default -> doc -> true; // match_all and anything the fake does not model
+        };
+    }
+
+    private Predicate<JsonNode> bool(JsonNode spec) {
+        List<Predicate<JsonNode>> required = new ArrayList<>();
+        clauses(spec.path("must")).forEach(q -> required.add(compile(q)));
+        clauses(spec.path("filter")).forEach(q -> required.add(compile(q)));
+        List<Predicate<JsonNode>> excluded = new ArrayList<>();
+        clauses(spec.path("must_not")).forEach(q -> excluded.add(compile(q)));
+        List<Predicate<JsonNode>> optional = new ArrayList<>();
+        clauses(spec.path("should")).forEach(q -> optional.add(compile(q)));
+        int minimumShould = spec.has("minimum_should_match")
+                ? Integer.parseInt(spec.path("minimum_should_match").asText())
+                : (required.isEmpty() && !optional.isEmpty() ? 1 : 0);
+
+        return doc -> {
+            for (Predicate<JsonNode> p : required) if (!p.test(doc)) return false;
+            for (Predicate<JsonNode> p : excluded) if (p.test(doc)) return false;
+            if (minimumShould == 0) return true;
+            int matched = 0;
+            for (Predicate<JsonNode> p : optional) {
+                if (p.test(doc) && ++matched >= minimumShould) return true;
+            }
+            return false;
+        };
+    }
+
+    private static List<JsonNode> clauses(JsonNode node) {
+        List<JsonNode> result = new ArrayList<>();
+        if (node.isArray()) node.forEach(result::add);
+        else if (node.isObject()) result.add(node);
+        return result;
+    }
+
+    private static Predicate<JsonNode> term(JsonNode spec) {
+        Map.Entry<String, JsonNode> field = spec.fields().next();
+        JsonNode value = field.getValue().isObject() ? field.getValue().path("value") : field.getValue();
+        String name = field.getKey();
+        return doc -> values(doc, name).stream().anyMatch(v -> v.asText().equals(value.asText()));
+    }
+
+    private static Predicate<JsonNode> terms(JsonNode spec) {
+        Map.Entry<String, JsonNode> field = spec.fields().next();
+        Set<String> values = new LinkedHashSet<>();
+        field.getValue().forEach(v -> values.add(v.asText()));
+        String name = field.getKey();
+        return doc -> values(doc, name).stream().anyMatch(v -> values.contains(v.asText()));
+    }
+
+    private static Predicate<JsonNode> range(JsonNode spec) {
+        Map.Entry<String, JsonNode> field = spec.fields().next();
+        String name = field.getKey();
+        JsonNode bounds = field.getValue();
+        return doc -> {
+            JsonNode value = doc.get(name);
+            if (value == null || value.isNull()) return false;
+            if (value.isObject()) return rangeField(value, bounds);
+            if (bounds.has("gte") && compareValues(value, bounds.get("gte")) < 0) return false;
+            if (bounds.has("gt") && compareValues(value, bounds.get("gt")) <= 0) return false;
+            if (bounds.has("lte") && compareValues(value, bounds.get("lte")) > 0) return false;
+            if (bounds.has("lt") && compareValues(value, bounds.get("lt")) >= 0) return false;
+            return true;
+        };
+    }
+
+    // Range-typed fields ({gte, lte} in the document, open where missing): "within" and the default "intersects"
+    private static boolean rangeField(JsonNode value, JsonNode bounds) {
+        JsonNode docFrom = value.get("gte");
+        JsonNode docTo = value.get("lte");
+        JsonNode from = bounds.get("gte");
+        JsonNode to = bounds.get("lte");
+        if ("within".equalsIgnoreCase(bounds.path("relation").asText())) {
+            if (from != null && (docFrom == null || compareValues(docFrom, from) < 0)) return false;
+            return to == null || (docTo != null && compareValues(docTo, to) <= 0);
+        }
+        if (from != null && docTo != null && compareValues(docTo, from) < 0) return false;
+        return to == null || docFrom == null || compareValues(docFrom, to) <= 0;
+    }
+
+    // Array fields match on any element, as in Elasticsearch
+    private static List<JsonNode> values(JsonNode doc, String name) {
+        JsonNode value = doc.get(name);
+        if (value == null || value.isNull()) return List.of();
+        List<JsonNode> result = new ArrayList<>();
+        if (value.isArray()) value.forEach(result::add);
+        else result.add(value);
+        return result;
+    }
+
+    // Analyzed fields are matched as lower-cased substrings; subfields (.prefix, .shingle) and boosts map to the base field
+    private static Predicate<JsonNode> text(List<String> fields, String query, boolean all) {
+        List<String> names = fields.stream().map(f -> f.replaceAll("\\^.*$", "").replaceAll("\\..*$", "")).distinct().toList();
+        List<String> tokens = new ArrayList<>();
+        for (String token : query.toLowerCase(Locale.ROOT).split("\\W+")) {
+            if (!token.isBlank()) tokens.add(token);
+        }
+        return doc -> {
+            if (tokens.isEmpty()) return false;
+            int found = 0;
+            for (String token : tokens) {
+                for (String name : names) {
+                    JsonNode value = doc.get(name);
+                    if (value != null && value.asText().toLowerCase(Locale.ROOT).contains(token)) {
+                        found++;
+                        break;
+                    }
+                }
+            }
+            return all ? found == tokens.size() : found > 0;
+        };
+    }
+
+    private static int compareValues(JsonNode a, JsonNode b) {
+        if (a.isNumber() && (b.isNumber() || isNumeric(b.asText()))) {
+            return Double.compare(a.asDouble(), b.isNumber() ? b.asDouble() : Double.parseDouble(b.asText()));
+        }
+        String left = a.asText();
+        String right = b.asText();
+        try {
+            return Instant.parse(left).compareTo(Instant.parse(right));
+        } catch (DateTimeParseException e) {
+            return left.compareTo(right);
+        }
+    }
+
+    private static boolean isNumeric(String s) {
+        try {
+            Double.parseDouble(s);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // ===== Sorting =====
+
+    private record SortKey(String field, boolean descending) {}
+
+    private static List<SortKey> sortKeys(JsonNode sort) {
+        List<SortKey> keys = new ArrayList<>();
+        for (JsonNode entry : clauses(sort)) {
+            if (entry.isTextual()) {
+                keys.add(new SortKey(entry.asText(), false));
+                continue;
+            }
+            Map.Entry<String, JsonNode> field = entry.fields().next();
+            String order = field.getValue().isObject() ? field.getValue().path("order").asText("asc") : field.getValue().asText("asc");
+            keys.add(new SortKey(field.getKey(), "desc".equalsIgnoreCase(order)));
+        }
+        return keys;
+    }
+
+    private List<JsonNode> sortValues(List<SortKey> keys, JsonNode doc) {
+        List<JsonNode> values = new ArrayList<>(keys.size());
+        for (SortKey key : keys) {
+            // Every hit has the same score, so _score keeps document order
+            JsonNode value = "_score".equals(key.field()) ? mapper.getNodeFactory().numberNode(1.0) : doc.get(key.field());
+            values.add(value == null ? mapper.getNodeFactory().nullNode() : value);
+        }
+        return values;
+    }
+
+    private static int compareSort(List<SortKey> keys, List<JsonNode> a, List<JsonNode> b) {
+        for (int i = 0; i < keys.size(); i++) {
+            JsonNode left = a.get(i);
+            JsonNode right = i < b.size() ? b.get(i) : null;
+            boolean leftMissing = left == null || left.isNull();
+            boolean rightMissing = right == null || right.isNull();
+            int cmp;
+            if (leftMissing || rightMissing) {
+                cmp = Boolean.compare(leftMissing, rightMissing); // missing values sort last
+            } else {
+                cmp = compareValues(left, right);
+                if (keys.get(i).descending()) cmp = -cmp;
+            }
+            if (cmp != 0) return cmp;
+        }
+        return 0;
+    }
+
+    // ===== Aggregations and suggestions =====
+
+    // Filter aggregations with terms sub-aggregations; other kinds are left out of the response
+    private ObjectNode aggregations(JsonNode aggs, List<ObjectNode> docs) {
+        ObjectNode out = mapper.createObjectNode();
+        aggs.fields().forEachRemaining(agg -> {
+            JsonNode spec = agg.getValue();
+            if (spec.has("filter")) {
+                Predicate<JsonNode> filter = compile(spec.path("filter"));
+                List<ObjectNode> scoped = docs.stream().filter(filter).toList();
+                ObjectNode node = out.putObject("filter#" + agg.getKey());
+                node.put("doc_count", scoped.size());
+                JsonNode sub = spec.has("aggregations") ? spec.path("aggregations") : spec.path("aggs");
+                node.setAll(aggregations(sub, scoped));
+            } else if (spec.has("terms")) {
+                String field = spec.path("terms").path("field").asText();
+                int size = spec.path("terms").path("size").asInt(10);
+                boolean byKey = spec.path("terms").path("order").findValue("_key") != null;
+                Map<String, Long> counts = new LinkedHashMap<>();
+                for (ObjectNode doc : docs) {
+                    values(doc, field).forEach(v -> counts.merge(v.asText(), 1L, Long::sum));
+                }
+                ObjectNode node = out.putObject("sterms#" + agg.getKey());
+                node.put("doc_count_error_upper_bound", 0);
+                ArrayNode buckets = node.putArray("buckets");
+                long[] other = {0};
+                counts.entrySet().stream()
+                        .sorted(byKey ? Map.Entry.comparingByKey()
+                                : Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+                        .forEach(e -> {
+                            if (buckets.size() < size) buckets.addObject().put("key", e.getKey()).put("doc_count", e.getValue());
+                            else other[0] += e.getValue();
+                        });
+                node.put("sum_other_doc_count", other[0]);
+            }
+        });
+        return out;
+    }
+
+    private ObjectNode suggest(JsonNode suggest) {
+        ObjectNode out = mapper.createObjectNode();
+        suggest.fields().forEachRemaining(entry -> {
+            JsonNode spec = entry.getValue();
+            if (!spec.has("completion")) return;
+            String prefix = spec.path("prefix").asText("");
+            String normalized = prefix.toLowerCase(Locale.ROOT);
+            int size = spec.path("completion").path("size").asInt(5);
+
+            ObjectNode result = out.putArray("completion#" + entry.getKey()).addObject();
+            result.put("text", prefix).put("offset", 0).put("length", prefix.length());
+            ArrayNode options = result.putArray("options");
+            Set<String> seen = new LinkedHashSet<>();
+            for (ObjectNode doc : documents.values()) {
+                if (options.size() >= size) break;
+                String title = doc.path("title").asText("");
+                if (!title.toLowerCase(Locale.ROOT).startsWith(normalized) || !seen.add(title)) continue;
+                ObjectNode option = options.addObject();
+                option.put("text", title).put("_index", INDEX).put("_id", doc.path("id").asText()).put("_score", 1.0);
+                option.set("_source", doc);
+            }
+        });
+        return out;
+    }
+
+    // ===== Writes =====
+
+    private ObjectNode bulk(HttpExchange exchange) throws IOException {
+        String[] lines = new String(requestBytes(exchange), StandardCharsets.UTF_8).split("\n");
+        ObjectNode response = mapper.createObjectNode();
+        response.put("took", 1);
+        response.put("errors", false);
+        ArrayNode items = response.putArray("items");
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i].isBlank()) continue;
+            JsonNode action = mapper.readTree(lines[i]);
+            String op = action.fieldNames().next();
+            String id = action.path(op).path("_id").asText();
+            ObjectNode item = items.addObject().putObject(op);
+            item.put("_index", INDEX).put("_id", id).put("_version", 1);
+            switch (op) {
+                case "index", "create" -> {
+                    ObjectNode doc = (ObjectNode) mapper.readTree(lines[++i]);
+                    boolean created = documents.put(id, doc) == null;
+                    item.put("result", created ? "created" : "updated").put("status", created ? 201 : 200);
+                }
+                case "delete" -> {
+                    boolean deleted = documents.remove(id) != null;
+                    item.put("result", deleted ? "deleted" : "not_found").put("status", deleted ? 200 : 404);
+                }
+                default -> {
+                    i++; // update and friends carry a body line the fake ignores
+                    item.put("result", "noop").put("status", 200);
+                }
+            }
+        }
+        return response;
+    }
+
+    private ObjectNode mget(JsonNode request) {
+        List<String> ids = new ArrayList<>();
+        request.path("ids").forEach(id -> ids.add(id.asText()));
+        request.path("docs").forEach(d -> ids.add(d.path("_id").asText()));
+        ObjectNode response = mapper.createObjectNode();
+        ArrayNode docs = response.putArray("docs");
+        for (String id : ids) {
+            ObjectNode doc = documents.get(id);
+            ObjectNode item = docs.addObject();
+            item.put("_index", INDEX).put("_id", id).put("found", doc != null);
+            if (doc != null) item.put("_version", 1).set("_source", doc);
+        }
+        return response;
+    }
+}
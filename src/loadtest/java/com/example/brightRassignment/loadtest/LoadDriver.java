@@ -0,0 +1,184 @@
+package com.example.brightRassignment.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * HTTP load generator with one latency histogram per endpoint.
+ * <ul>
+ *   <li>Closed loop: a fixed number of workers, each sending its next request as soon as the
+ *   previous one returns. Measures throughput at a given concurrency.</li>
+ *   <li>Open loop: requests start on a fixed schedule whatever the response times. Latency counts
+ *   from the scheduled start, so a stalled server shows up as queueing instead of being hidden by
+ *   the load generator slowing down (coordinated omission).</li>
+ * </ul>
+ */
+public class LoadDriver {
+
+    public enum Mode { CLOSED, OPEN }
+
+    /** A request type in the mix; {@code path} builds a path-and-query from the worker's random source. */
+    public record Endpoint(String name, int weight, Function<SplittableRandom, String> path) {}
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final String baseUri;
+    private final List<Endpoint> endpoints;
+    private final int totalWeight;
+    private final HttpClient http;
+    private final Map<String, Stats> stats = new LinkedHashMap<>();
+
+    public LoadDriver(String baseUri, List<Endpoint> endpoints) {
+        this.baseUri = baseUri;
+        this.endpoints = List.copyOf(endpoints);
+        this.totalWeight = endpoints.stream().mapToInt(Endpoint::weight).sum();
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        endpoints.forEach(e -> stats.put(e.name(), new Stats()));
+    }
+
+    /** Runs the warm-up, discards what it recorded, then runs the measured phase. */
+    public Report run(Mode mode, int concurrency, double ratePerSecond, Duration warmup, Duration duration)
+            throws InterruptedException {
+        if (!warmup.isZero()) {
+            phase(mode, concurrency, ratePerSecond, warmup);
+            stats.values().forEach(Stats::reset);
+        }
+        long start = System.nanoTime();
+        phase(mode, concurrency, ratePerSecond, duration);
+        return new Report(mode, System.nanoTime() - start, stats);
+    }
+
+    private void phase(Mode mode, int concurrency, double ratePerSecond, Duration duration) throws InterruptedException {
+        long end = System.nanoTime() + duration.toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (mode == Mode.CLOSED) {
+                for (int w = 0; w < concurrency; w++) {
+                    SplittableRandom random = new SplittableRandom(w);
+                    workers.execute(() -> {
+                        while (System.nanoTime() < end) {
+                            send(pick(random), random, System.nanoTime());
+                        }
+                    });
+                }
+            } else {
+                long interval = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+                SplittableRandom random = new SplittableRandom(0);
+                for (long intended = System.nanoTime(); intended < end; intended += interval) {
+                    long wait = intended - System.nanoTime();
+                    if (wait > 0) LockSupport.parkNanos(wait);
+                    Endpoint endpoint = pick(random);
+                    SplittableRandom requestRandom = random.split();
+                    long scheduled = intended;
+                    workers.execute(() -> send(endpoint, requestRandom, scheduled));
+                }
+            }
+        } // close() waits for in-flight requests
+    }
+
+    private Endpoint pick(SplittableRandom random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Endpoint e : endpoints) {
+            ticket -= e.weight();
+            if (ticket < 0) return e;
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    private void send(Endpoint endpoint, SplittableRandom random, long startNanos) {
+        Stats s = stats.get(endpoint.name());
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + endpoint.path().apply(random)))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        try {
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            s.record(System.nanoTime() - startNanos, response.statusCode(), response.body().length);
+        } catch (IOException e) {
+            s.record(System.nanoTime() - startNanos, -1, 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static final class Stats {
+        final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+        final LongAdder shed = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+
+        void record(long nanos, int status, int size) {
+            latency.recordValue(Math.min(MAX_LATENCY_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos)));
+            bytes.add(size);
+            if (status == 503) shed.increment();
+            else if (status < 200 || status >= 300) errors.increment();
+        }
+
+        void reset() {
+            latency.reset();
+            errors.reset();
+            shed.reset();
+            bytes.reset();
+        }
+    }
+
+    public record Report(Mode mode, long elapsedNanos, Map<String, Stats> stats) {
+
+        public void print(PrintStream out) {
+            double seconds = elapsedNanos / 1e9;
+            out.printf("%n%-18s %9s %9s %7s %7s %9s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "req/s",
+                    "errors", "shed", "KB/req", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+            List<Histogram> all = new ArrayList<>();
+            stats.forEach((name, s) -> {
+                Histogram h = s.latency.copy();
+                all.add(h);
+                long count = h.getTotalCount();
+                out.printf("%-18s %9d %9.1f %7d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, count, count / seconds,
+                        s.errors.sum(), s.shed.sum(), count == 0 ? 0 : s.bytes.sum() / 1024.0 / count,
+                        ms(h, 50), ms(h, 90), ms(h, 99), ms(h, 99.9), h.getMaxValue() / 1000.0);
+            });
+            Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+            all.forEach(total::add);
+            out.printf("%-18s %9d %9.1f%n", "total (" + mode.name().toLowerCase() + " loop)",
+                    total.getTotalCount(), total.getTotalCount() / seconds);
+        }
+
+        /** Full percentile distribution per endpoint, in milliseconds, in HdrHistogram's .hgrm format. */
+        public void writeDistributions(Path dir) throws IOException {
+            Files.createDirectories(dir);
+            for (Map.Entry<String, Stats> e : stats.entrySet()) {
+                try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(e.getKey() + ".hgrm")))) {
+                    e.getValue().latency.copy().outputPercentileDistribution(out, 1000.0);
+                }
+            }
+        }
+
+        private static double ms(Histogram h, double percentile) {
+            return h.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
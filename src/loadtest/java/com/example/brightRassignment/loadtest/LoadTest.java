@@ -0,0 +1,117 @@
+package com.example.brightRassignment.loadtest;
+
+import com.example.brightRassignment.BrightRassignmentApplication;
+import com.example.brightRassignment.loadtest.LoadDriver.Endpoint;
+import com.example.brightRassignment.support.SyntheticCourses;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Starts the application against an in-process Elasticsearch stand-in seeded with a synthetic
+ * catalog, drives a weighted mix of search traffic at it and prints per-endpoint latency
+ * percentiles. Nothing leaves the machine.
+ * <p>
+ * Settings are system properties, set from the {@code loadtest} Maven profile:
+ * {@code loadtest.mode} (closed|open), {@code loadtest.concurrency}, {@code loadtest.rate},
+ * {@code loadtest.warmup}, {@code loadtest.duration}, {@code loadtest.catalog-size} and
+ * {@code loadtest.output}. Properties prefixed with {@code app.} are passed to the application,
+ * e.g. {@code -Dapp.search.cache.max-entries=0} to measure without the response cache.
+ */
+public final class LoadTest {
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        // DevTools would restart main in a new class loader, starting a second stand-in on another port
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        LoadDriver.Mode mode = LoadDriver.Mode.valueOf(System.getProperty("loadtest.mode", "closed").toUpperCase(Locale.ROOT));
+        int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        double rate = Double.parseDouble(System.getProperty("loadtest.rate", "200"));
+        Duration warmup = DurationStyle.detectAndParse(System.getProperty("loadtest.warmup", "10s"));
+        Duration duration = DurationStyle.detectAndParse(System.getProperty("loadtest.duration", "30s"));
+        int catalogSize = Integer.getInteger("loadtest.catalog-size", 50_000);
+        Path output = Path.of(System.getProperty("loadtest.output", "target/loadtest"));
+
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        try (FakeElasticsearchServer elasticsearch = new FakeElasticsearchServer(mapper).start()) {
+            elasticsearch.load(SyntheticCourses.generate(catalogSize));
+            System.out.printf("Fake Elasticsearch at %s with %d courses%n", elasticsearch.uri(), elasticsearch.size());
+
+            try (ConfigurableApplicationContext app = new SpringApplicationBuilder(BrightRassignmentApplication.class)
+                    .run(applicationArguments(elasticsearch.uri()))) {
+                int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+                LoadDriver driver = new LoadDriver("http://localhost:" + port, endpoints());
+
+                System.out.printf("Running %s loop (%s) for %s after %s warm-up%n", mode.name().toLowerCase(Locale.ROOT),
+                        mode == LoadDriver.Mode.CLOSED ? concurrency + " workers" : rate + " req/s", duration, warmup);
+                LoadDriver.Report report = driver.run(mode, concurrency, rate, warmup, duration);
+                report.print(System.out);
+                report.writeDistributions(output);
+                System.out.println("Percentile distributions written to " + output.toAbsolutePath());
+            }
+        }
+    }
+
+    // Command-line arguments, so they win over application.properties
+    private static String[] applicationArguments(String elasticsearchUri) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.elasticsearch.uris=" + elasticsearchUri,
+                // The stand-in is seeded directly; there is no alias or mapping to bootstrap
+                "--catalog.bootstrap.enabled=false",
+                "--logging.level.root=WARN"));
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("app."))
+                .forEach(name -> arguments.add("--" + name.substring(4) + "=" + System.getProperty(name)));
+        return arguments.toArray(String[]::new);
+    }
+
+    /** The traffic mix: mostly keyword and filter searches, a steady stream of typeahead, some facets. */
+    static List<Endpoint> endpoints() {
+        List<String> subjects = SyntheticCourses.subjects();
+        List<String> categories = SyntheticCourses.categories();
+        // Typeahead prefixes come from real titles, since completion only matches from the start
+        List<String> titles = SyntheticCourses.generate(500).stream().map(c -> c.getTitle().toLowerCase(Locale.ROOT)).toList();
+        return List.of(
+                new Endpoint("search.keyword", 30, r -> "/api/search?q=" + encode(word(subjects, r))
+                        + "&page=" + r.nextInt(3)),
+                new Endpoint("search.filtered", 25, r -> "/api/search?category=" + encode(pick(categories, r))
+                        + "&minAge=" + (5 + r.nextInt(6)) + "&maxPrice=" + (10 + r.nextInt(50)) + "&sort=priceAsc"),
+                new Endpoint("search.summary", 10, r -> "/api/search?view=summary&q=" + encode(word(subjects, r))),
+                new Endpoint("search.faceted", 10, r -> "/api/search?facets=true&q=" + encode(word(subjects, r))),
+                new Endpoint("suggest", 20, r -> {
+                    String title = pick(titles, r);
+                    return "/api/search/suggest?prefix=" + encode(title.substring(0, Math.min(title.length(), 2 + r.nextInt(6))));
+                }),
+                new Endpoint("combined", 5, r -> "/api/search/combined?q=" + encode(word(subjects, r))));
+    }
+
+    private static String word(List<String> subjects, SplittableRandom random) {
+        return pick(subjects, random).split(" ")[0].toLowerCase(Locale.ROOT);
+    }
+
+    private static String pick(List<String> values, SplittableRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.brightRassignment.Bootstrap;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the catalog bootstrap as the "catalog" health component, which is part of the readiness group.
+ */
+@Component("catalog")
+public class CatalogHealthIndicator implements HealthIndicator {
+
+    private final ElasticsearchBootstrap bootstrap;
+
+    public CatalogHealthIndicator(ElasticsearchBootstrap bootstrap) {
+        this.bootstrap = bootstrap;
+    }
+
+    @Override
+    public Health health() {
+        ElasticsearchBootstrap.Status status = bootstrap.status();
+        Health.Builder builder = status.ready() ? Health.up() : Health.outOfService();
+        builder.withDetail("phase", status.phase());
+        if (status.index() != null) builder.withDetail("index", status.index());
+        if (status.error() != null) builder.withDetail("error", status.error());
+        return builder.build();
+    }
+}
@@ -1,70 +1,167 @@
 package com.example.brightRassignment.Bootstrap;
 
-import java.io.InputStream;
-import java.util.Arrays;
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
-import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
-import org.springframework.data.elasticsearch.core.IndexOperations;
 import org.springframework.stereotype.Component;
 
-import com.example.brightRassignment.Document.CourseDocument;
-import com.example.brightRassignment.Repository.CourseRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.example.brightRassignment.Service.ConcurrentReindexException;
+import com.example.brightRassignment.Service.CourseReindexService;
 
+/**
+ * Single owner of startup indexing. The catalog fingerprint and the index state are read in parallel
+ * off the startup thread; the catalog is only reloaded when no alias exists yet or the fingerprint
+ * (catalog bytes + mapping + settings) has changed. The outcome is exposed through {@link #status()}.
+ * <p>
+ * While there is no alias to serve, failed attempts (e.g. Elasticsearch not up yet) are retried with
+ * exponential backoff. When another instance is already building the same version, this one waits for
+ * its alias swap instead of loading the catalog twice.
+ */
 @Component
-public class ElasticsearchBootstrap implements ApplicationRunner {
+public class ElasticsearchBootstrap implements ApplicationRunner, DisposableBean {
 
-    private final CourseRepository repo;
-    private final ObjectMapper mapper;
-    private final ElasticsearchOperations operations;
+    public enum Phase { CHECKING, LOADING, RELOADING, READY, FAILED }
 
-    public ElasticsearchBootstrap(CourseRepository repo, ObjectMapper mapper, ElasticsearchOperations operations) {
-        this.repo = repo;
-        this.mapper = mapper;
-        this.operations = operations;
+    public record Status(Phase phase, boolean ready, String fingerprint, String index, String error) {}
 
-        // Register JavaTimeModule to handle Instant
-        this.mapper.registerModule(new JavaTimeModule());
+    private record IndexState(boolean aliased, String fingerprint) {}
+
+    private static final Logger log = LoggerFactory.getLogger(ElasticsearchBootstrap.class);
+
+    private final CourseReindexService reindexService;
+    private final String catalogSource;
+    private final boolean enabled;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration peerWait;
+    private final ExecutorService executor = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "catalog-bootstrap");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile Status status = new Status(Phase.CHECKING, false, null, null, null);
+
+    public ElasticsearchBootstrap(CourseReindexService reindexService,
+                                  @Value("${catalog.source:classpath:sample-courses.json}") String catalogSource,
+                                  @Value("${catalog.bootstrap.enabled:true}") boolean enabled,
+                                  @Value("${catalog.bootstrap.initial-backoff:1s}") Duration initialBackoff,
+                                  @Value("${catalog.bootstrap.max-backoff:1m}") Duration maxBackoff,
+                                  @Value("${catalog.bootstrap.peer-wait:10m}") Duration peerWait) {
+        this.reindexService = reindexService;
+        this.catalogSource = catalogSource;
+        this.enabled = enabled;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.peerWait = peerWait;
     }
 
     @Override
-    public void run(ApplicationArguments args) throws Exception {
-        IndexOperations indexOps = operations.indexOps(CourseDocument.class);
-
-        if (!indexOps.exists()) {
-            indexOps.create();
-            indexOps.putMapping(indexOps.createMapping());
-            System.out.println("Created 'courses' index with mapping.");
-        } else {
-            System.out.println("'courses' index already exists.");
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            // The index is managed elsewhere (or pre-seeded, as in load tests): serve whatever the alias points to
+            log.info("Catalog bootstrap disabled, serving the existing '{}' index", CourseReindexService.ALIAS);
+            status = new Status(Phase.READY, true, null, CourseReindexService.ALIAS, null);
+            return;
         }
+        executor.execute(this::bootstrap);
+    }
 
-        if (repo.count() == 0) {
-            InputStream is = getClass().getResourceAsStream("/sample-courses.json");
-            if (is == null) {
-                System.err.println("sample-courses.json not found!");
+    private void bootstrap() {
+        long backoff = initialBackoff.toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                attempt();
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
                 return;
+            } catch (Exception e) {
+                Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                Status current = status;
+                // An existing alias keeps serving the previous catalog, so the pod can still take traffic
+                boolean ready = current.phase() == Phase.RELOADING;
+                status = new Status(Phase.FAILED, ready, current.fingerprint(), current.index(), String.valueOf(cause));
+                if (ready) {
+                    log.error("Catalog reload failed, still serving the previous catalog", cause);
+                    return;
+                }
+                log.error("Catalog bootstrap attempt {} failed, retrying in {}ms", attempt, backoff, cause);
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoff = Math.min(backoff * 2, maxBackoff.toMillis());
+        }
+    }
+
+    // The fingerprint is hashed here while the index state is read on the other thread
+    private void attempt() throws IOException, InterruptedException {
+        CompletableFuture<IndexState> indexState = CompletableFuture.supplyAsync(() -> {
+            try {
+                return new IndexState(reindexService.isAliased(), reindexService.currentFingerprint());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
+        }, executor);
+        String fingerprint = reindexService.fingerprint(catalogSource);
+        load(fingerprint, indexState.join());
+    }
 
-            CourseDocument[] arr = mapper.readValue(is, CourseDocument[].class);
-            List<CourseDocument> list = Arrays.asList(arr);
+    private void load(String fingerprint, IndexState state) throws IOException, InterruptedException {
+        if (state.aliased() && fingerprint.equals(state.fingerprint())) {
+            log.info("Catalog unchanged (fingerprint {}), skipping reindex", fingerprint);
+            status = new Status(Phase.READY, true, fingerprint, CourseReindexService.ALIAS, null);
+            return;
+        }
 
-            // Ensure all dates are set
-            list.forEach(c -> {
-                if (c.getNextSessionDate() == null) {
-                    c.setNextSessionDate(java.time.Instant.now());
-                }
-            });
+        // First start blocks readiness; a changed catalog reloads behind the alias while the old one serves
+        status = new Status(state.aliased() ? Phase.RELOADING : Phase.LOADING, state.aliased(), fingerprint, null, null);
+        try {
+            CourseReindexService.ReindexResult result = reindexService.reindex(catalogSource, fingerprint);
+            log.info("Loaded {} courses into '{}'", result.ingest().indexed(), result.index());
+            status = new Status(Phase.READY, true, fingerprint, result.index(), null);
+        } catch (ConcurrentReindexException e) {
+            log.info("{}, waiting for its alias swap", e.getMessage());
+            if (!awaitPeer(e.index(), fingerprint)) {
+                throw new IllegalStateException("Gave up waiting for the reindex into " + e.index(), e);
+            }
+            log.info("Catalog loaded by another instance (fingerprint {})", fingerprint);
+            status = new Status(Phase.READY, true, fingerprint, CourseReindexService.ALIAS, null);
+        }
+    }
 
-            repo.saveAll(list);
-            indexOps.refresh();
-            System.out.println("Bulk indexed " + list.size() + " courses.");
-        } else {
-            System.out.println("Courses index already has data, skipping bootstrap.");
+    /** True once the alias serves this catalog; false if the other build disappeared or took too long. */
+    private boolean awaitPeer(String index, String fingerprint) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + peerWait.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (reindexService.isAliased() && fingerprint.equals(reindexService.currentFingerprint())) return true;
+            if (!reindexService.listVersions().contains(index)) return false;
+            Thread.sleep(initialBackoff.toMillis());
         }
+        return false;
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
     }
 }
@@ -0,0 +1,81 @@
+package com.example.brightRassignment.Controller;
+
+import com.example.brightRassignment.Bootstrap.ElasticsearchBootstrap;
+import com.example.brightRassignment.Service.CourseIngestService;
+import com.example.brightRassignment.Service.CourseIngestService.IngestReport;
+import com.example.brightRassignment.Service.CourseReindexService;
+import com.example.brightRassignment.Service.CourseReindexService.ReindexResult;
+import com.example.brightRassignment.Service.IncompleteReindexException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private CourseIngestService ingestService;
+
+    @Autowired
+    private CourseReindexService reindexService;
+
+    @Autowired
+    private ElasticsearchBootstrap bootstrap;
+
+    @Value("${catalog.source:classpath:sample-courses.json}")
+    private String catalogSource;
+
+    // 503 until the first catalog load has finished, usable as a readiness probe
+    @GetMapping("/bootstrap")
+    public ResponseEntity<ElasticsearchBootstrap.Status> bootstrapStatus() {
+        ElasticsearchBootstrap.Status status = bootstrap.status();
+        return ResponseEntity.status(status.ready() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(status);
+    }
+
+    // source: catalog.source, or file:... / a plain path to a file under catalog.source-dir
+    @PostMapping("/ingest")
+    public IngestReport ingest(@RequestParam String source) throws IOException {
+        return ingestService.ingest(source);
+    }
+
+    // Full reload into a new courses-v{n} index, then an atomic alias swap
+    @PostMapping("/reindex")
+    public ReindexResult reindex(@RequestParam(required = false) String source) throws IOException {
+        return reindexService.reindex(source != null ? source : catalogSource);
+    }
+
+    @PostMapping("/reindex/rollback")
+    public Map<String, String> rollback() throws IOException {
+        return Map.of("index", reindexService.rollback());
+    }
+
+    @GetMapping("/reindex/versions")
+    public List<String> versions() throws IOException {
+        return reindexService.listVersions();
+    }
+
+    @ExceptionHandler(IncompleteReindexException.class)
+    @ResponseStatus(HttpStatus.BAD_GATEWAY)
+    public Map<String, Object> incompleteReindex(IncompleteReindexException e) {
+        return Map.of("error", e.getMessage(), "ingest", e.report());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> conflict(IllegalStateException e) {
+        return Map.of("error", e.getMessage());
+    }
+}
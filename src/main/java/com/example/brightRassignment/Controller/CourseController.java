@@ -0,0 +1,83 @@
+package com.example.brightRassignment.Controller;
+
+import com.example.brightRassignment.Document.CourseDocument;
+import com.example.brightRassignment.Service.CourseWriteBuffer;
+import com.example.brightRassignment.Service.CourseWriteBuffer.WriteResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Single-course writes. Writes are buffered and flushed in bulk, so by default the response is
+ * 202 as soon as the write is queued; {@code wait=true} holds the request until it has been flushed.
+ * {@code version} is an optional external version: a write carrying a version at or below the
+ * stored one is rejected with 409.
+ */
+@RestController
+@RequestMapping("/api/courses")
+public class CourseController {
+
+    private static final long WAIT_SECONDS = 30;
+
+    @Autowired
+    private CourseWriteBuffer writeBuffer;
+
+    @PutMapping("/{id}")
+    public ResponseEntity<Object> upsert(@PathVariable String id,
+                                         @RequestBody CourseDocument course,
+                                         @RequestParam(required = false) Long version,
+                                         @RequestParam(defaultValue = "false") boolean wait) throws InterruptedException {
+        return respond(id, writeBuffer.upsert(id, course, version), wait);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Object> patch(@PathVariable String id,
+                                        @RequestBody Map<String, Object> fields,
+                                        @RequestParam(required = false) Long version,
+                                        @RequestParam(defaultValue = "false") boolean wait) throws InterruptedException {
+        return respond(id, writeBuffer.patch(id, fields, version), wait);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Object> delete(@PathVariable String id,
+                                         @RequestParam(required = false) Long version,
+                                         @RequestParam(defaultValue = "false") boolean wait) throws InterruptedException {
+        return respond(id, writeBuffer.delete(id, version), wait);
+    }
+
+    private ResponseEntity<Object> respond(String id, CompletableFuture<WriteResult> pending, boolean wait)
+            throws InterruptedException {
+        if (!wait) {
+            return ResponseEntity.accepted().body(Map.of("id", id, "outcome", "QUEUED"));
+        }
+        try {
+            WriteResult result = pending.get(WAIT_SECONDS, TimeUnit.SECONDS);
+            HttpStatus status = switch (result.outcome()) {
+                case INDEXED, DELETED -> HttpStatus.OK;
+                case STALE -> HttpStatus.CONFLICT;
+                case NOT_FOUND -> HttpStatus.NOT_FOUND;
+                case FAILED -> HttpStatus.BAD_GATEWAY;
+            };
+            return ResponseEntity.status(status).body(result);
+        } catch (TimeoutException e) {
+            // Still queued: it will be applied, the caller just stops waiting
+            return ResponseEntity.accepted().body(Map.of("id", id, "outcome", "QUEUED"));
+        } catch (ExecutionException e) {
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                    .body(Map.of("id", id, "outcome", "FAILED", "error", String.valueOf(e.getCause().getMessage())));
+        }
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+}
@@ -1,15 +1,26 @@
 package com.example.brightRassignment.Controller;
 
-import com.example.brightRassignment.Document.CourseDocument;
+import com.example.brightRassignment.Service.CombinedSearchService;
+import com.example.brightRassignment.Service.CombinedSearchService.CombinedSearchResult;
+import com.example.brightRassignment.Service.CourseView;
+import com.example.brightRassignment.Service.CursorExpiredException;
+import com.example.brightRassignment.Service.OverloadedException;
+import com.example.brightRassignment.Service.SearchCache;
 import com.example.brightRassignment.Service.SearchService;
 import com.example.brightRassignment.Service.SearchService.RepoSearchResult;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
@@ -18,6 +29,12 @@ public class SearchController {
     @Autowired
     private SearchService searchService;
 
+    @Autowired
+    private SearchCache searchCache;
+
+    @Autowired
+    private CombinedSearchService combinedSearchService;
+
     @GetMapping("/search")
     public Object searchCourses(
             @RequestParam(required = false) String q,
@@ -30,23 +47,105 @@ public class SearchController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startDate,
             @RequestParam(defaultValue = "nextSessionDate") String sort,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean facets,
+            @RequestParam(defaultValue = "full") String view
     ) throws IOException {
+        // view=summary returns only list fields, view=detail drops the completion input
+        CourseView<?> courseView = CourseView.of(view);
+
+        // Cursor paging: "*" opens a point-in-time, later pages pass back the returned nextCursor
+        if (cursor != null && !cursor.isBlank()) {
+            return searchService.searchCoursesCursor(q, minAge, maxAge,
+                    category, type, minPrice, maxPrice, startDate, sort, size, cursor, courseView);
+        }
+
+        // Hits plus category/type/grade/price/age/date counts in one request
+        if (facets) {
+            return searchService.searchCoursesFaceted(q, minAge, maxAge,
+                    category, type, minPrice, maxPrice, startDate, sort, page, size, courseView);
+        }
 
         // Use Elasticsearch fuzzy search if a keyword is provided
         if (q != null && !q.isBlank()) {
-            List<CourseDocument> results = searchService.searchCoursesFuzzy(q, minAge, maxAge,
-                    category, type, minPrice, maxPrice, startDate, sort, page, size);
-            return new RepoSearchResult(results.size(), results);
+            List<?> results = searchService.searchCoursesFuzzy(q, minAge, maxAge,
+                    category, type, minPrice, maxPrice, startDate, sort, page, size, courseView);
+            return new RepoSearchResult<>(results.size(), results);
         }
 
-        // Fallback: in-memory repository search
-        return searchService.searchCoursesRepo(q, minAge, maxAge,
+        // No keyword: filter-only query, sorted and paged inside Elasticsearch
+        return searchService.searchCoursesFiltered(minAge, maxAge,
+                category, type, minPrice, maxPrice, startDate, sort, page, size, courseView);
+    }
+
+    // Hits, suggestions and facet counts fetched concurrently; parts that miss the deadline are listed in "missing"
+    @GetMapping("/search/combined")
+    public CombinedSearchResult searchCombined(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startDate,
+            @RequestParam(defaultValue = "nextSessionDate") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size
+    ) throws InterruptedException {
+        return combinedSearchService.search(q, minAge, maxAge,
                 category, type, minPrice, maxPrice, startDate, sort, page, size);
     }
 
+    // Every matching course as NDJSON, streamed batch by batch; fields=title,price limits each line
+    @GetMapping(value = "/search/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportCourses(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startDate,
+            @RequestParam(defaultValue = "nextSessionDate") String sort,
+            @RequestParam(required = false) List<String> fields
+    ) {
+        StreamingResponseBody body = out -> searchService.exportCourses(q, minAge, maxAge,
+                category, type, minPrice, maxPrice, startDate, sort, fields, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @GetMapping("/search/suggest")
     public List<String> autocomplete(@RequestParam String prefix) throws IOException {
         return searchService.getSuggestions(prefix);
     }
+
+    @GetMapping("/search/cache/stats")
+    public Map<String, Object> cacheStats() {
+        return searchCache.stats();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+
+    @ExceptionHandler(CursorExpiredException.class)
+    @ResponseStatus(HttpStatus.GONE)
+    public Map<String, String> cursorExpired(CursorExpiredException e) {
+        return Map.of("error", e.getMessage());
+    }
+
+    // Shed before reaching Elasticsearch and no in-memory answer exists for this search
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<Map<String, String>> overloaded(OverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
+    }
 }
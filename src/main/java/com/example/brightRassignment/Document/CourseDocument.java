@@ -1,27 +1,47 @@
 package com.example.brightRassignment.Document;
 
 import java.time.Instant;
+import java.util.List;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.elasticsearch.annotations.CompletionField;
 import org.springframework.data.elasticsearch.annotations.DateFormat;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
 import org.springframework.data.elasticsearch.core.suggest.Completion;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
-@Document(indexName = "courses")
+// "courses" is an alias over versioned indices managed by CourseReindexService, so Spring Data must not create it
+@Document(indexName = "courses", createIndex = false)
+@Setting(settingPath = "elasticsearch/course-settings.json")
 public class CourseDocument {
 
     @Id
+    @Field(type = FieldType.Keyword)
     private String id;
 
-    @Field(type = FieldType.Text)
+    // .prefix: edge n-grams for partial words (queried with the plain analyzer); .shingle: adjacent word pairs
+    @MultiField(
+            mainField = @Field(type = FieldType.Text, analyzer = "course_text"),
+            otherFields = {
+                    @InnerField(suffix = "prefix", type = FieldType.Text, analyzer = "course_prefix", searchAnalyzer = "course_text", norms = false),
+                    @InnerField(suffix = "shingle", type = FieldType.Text, analyzer = "course_shingle", norms = false)
+            }
+    )
     private String title;
 
-    @Field(type = FieldType.Text)
+    @MultiField(
+            mainField = @Field(type = FieldType.Text, analyzer = "course_text"),
+            otherFields = {
+                    @InnerField(suffix = "prefix", type = FieldType.Text, analyzer = "course_prefix", searchAnalyzer = "course_text", norms = false)
+            }
+    )
     private String description;
 
     @Field(type = FieldType.Keyword)
@@ -39,7 +59,8 @@ public class CourseDocument {
     @Field(type = FieldType.Integer)
     private Integer maxAge;
 
-    @Field(type = FieldType.Double)
+    // Stored as a long count of cents: exact bounds, and cheaper doc values than a double
+    @Field(type = FieldType.Scaled_Float, scalingFactor = 100)
     private Double price;
 
     @Field(type = FieldType.Date, format = DateFormat.date_time)
@@ -48,6 +69,19 @@ public class CourseDocument {
     @CompletionField
     private Completion autocomplete;
 
+    // ===== Derived at index time (CourseIngestService.prepare), never sent by clients =====
+
+    // [minAge, maxAge] as one range, so an age filter is a single query instead of two
+    @Field(type = FieldType.Integer_Range, docValues = false)
+    private AgeRange ageRange;
+
+    @Field(type = FieldType.Keyword)
+    private String priceBand;
+
+    // Every band the course's age range touches
+    @Field(type = FieldType.Keyword)
+    private List<String> ageBands;
+
     public CourseDocument() {}
 
     // getters and setters
@@ -83,4 +117,17 @@ public class CourseDocument {
 
     public Completion getAutocomplete() { return autocomplete; }
     public void setAutocomplete(Completion autocomplete) { this.autocomplete = autocomplete; }
+
+    public AgeRange getAgeRange() { return ageRange; }
+    public void setAgeRange(AgeRange ageRange) { this.ageRange = ageRange; }
+
+    public String getPriceBand() { return priceBand; }
+    public void setPriceBand(String priceBand) { this.priceBand = priceBand; }
+
+    public List<String> getAgeBands() { return ageBands; }
+    public void setAgeBands(List<String> ageBands) { this.ageBands = ageBands; }
+
+    /** Body of an {@code integer_range} field; a missing bound is open. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record AgeRange(Integer gte, Integer lte) {}
 }
@@ -0,0 +1,18 @@
+package com.example.brightRassignment.Document;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * List-view projection of a course: what a result list renders, without the description or the
+ * completion input. Read straight from a filtered {@code _source}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CourseSummary(String id, String title, String category, String type,
+                            Double price, Instant nextSessionDate) {
+
+    /** Source fields this record is read from. */
+    public static final List<String> FIELDS = List.of("id", "title", "category", "type", "price", "nextSessionDate");
+}
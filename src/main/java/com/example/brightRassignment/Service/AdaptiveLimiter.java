@@ -0,0 +1,74 @@
+package com.example.brightRassignment.Service;
+
+/**
+ * Concurrency limit that adapts to observed latency (AIMD): each call that completes under the
+ * latency target grows the limit by {@code 1 / limit}, so by about one per full window, and a slow
+ * or failed call cuts it by {@link #BACKOFF}. When Elasticsearch slows down, callers are turned
+ * away at the door instead of queueing behind it.
+ */
+public class AdaptiveLimiter {
+
+    static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveLimiter(int minLimit, int maxLimit, long latencyTargetNanos) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limiter bounds must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.limit = maxLimit;
+    }
+
+    /** Takes a slot if one is free; never waits. */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) return false;
+        inFlight++;
+        return true;
+    }
+
+    /** Waits for a slot; for work that must not be dropped, such as bulk ingest. */
+    public synchronized void acquire() throws InterruptedException {
+        while (inFlight >= (int) limit) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    /**
+     * Returns a slot and feeds the call into the limit. {@code overloaded} marks calls that failed
+     * because the cluster could not keep up (timeouts, 429, 5xx), which count like slow ones.
+     */
+    public synchronized void release(long latencyNanos, boolean overloaded) {
+        // Only a limit that is actually being used has earned more room
+        boolean saturated = inFlight * 2 >= limit;
+        inFlight--;
+        if (overloaded || latencyNanos > latencyTargetNanos) {
+            limit = Math.max(minLimit, limit * BACKOFF);
+        } else if (saturated) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+        notifyAll();
+    }
+
+    /** Returns a slot that was never used, leaving the limit as it is. */
+    public synchronized void cancel() {
+        inFlight--;
+        notifyAll();
+    }
+
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+}
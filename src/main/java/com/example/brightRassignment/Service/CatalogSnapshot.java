@@ -0,0 +1,368 @@
+package com.example.brightRassignment.Service;
+
+import com.example.brightRassignment.Document.CourseDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Columnar in-memory copy of the catalog for the repository-search fallback. Ages, prices and
+ * session dates live in primitive arrays, category, type and grade range are dictionary codes
+ * (category and type with a precomputed bitset per value), and sorting keeps only the top
+ * {@code (page + 1) * size} rows. No {@link CourseDocument} is kept: the returned page is built
+ * from the columns. Titles and descriptions are kept as read, since they are needed to build
+ * hits, and matched case-insensitively in place instead of through lower-cased copies.
+ */
+@Component
+public class CatalogSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    /** Source fields the columns hold; everything else (completion input, derived fields) is not read. */
+    static final List<String> FIELDS = List.of("id", "title", "description", "category", "type", "gradeRange",
+            "minAge", "maxAge", "price", "nextSessionDate");
+
+    private final CourseCatalogReader catalogReader;
+    private final boolean enabled;
+    private final RebuildScheduler rebuilds;
+
+    private volatile Columns columns;
+
+    public CatalogSnapshot(CourseCatalogReader catalogReader,
+                           @Value("${search.snapshot.enabled:true}") boolean enabled,
+                           @Value("${search.snapshot.write-rebuild-interval:30s}") Duration writeRebuildInterval) {
+        this.catalogReader = catalogReader;
+        this.enabled = enabled;
+        this.rebuilds = new RebuildScheduler("catalog-snapshot-rebuild", writeRebuildInterval, log, this::rebuild);
+    }
+
+    /** True once the first build has completed. */
+    public boolean isLoaded() {
+        return columns != null;
+    }
+
+    public int size() {
+        Columns current = columns;
+        return current == null ? 0 : current.size;
+    }
+
+    public SearchService.RepoSearchResult<CourseDocument> search(String q, Integer minAge, Integer maxAge,
+                                                 String category, String type,
+                                                 Double minPrice, Double maxPrice,
+                                                 Instant startDate, String sort,
+                                                 int page, int size) {
+        Columns current = columns;
+        if (current == null) throw new IllegalStateException("Catalog snapshot not loaded");
+        return current.search(q, minAge, maxAge, category, type, minPrice, maxPrice, startDate, sort, page, size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (enabled) rebuilds.now();
+    }
+
+    @EventListener
+    public void onIndexChanged(CourseIndexChangedEvent event) {
+        if (enabled) rebuilds.now();
+    }
+
+    @EventListener
+    public void onCoursesWritten(CoursesWrittenEvent event) {
+        if (enabled) rebuilds.afterWrites();
+    }
+
+    void rebuild() throws Exception {
+        List<CourseDocument> courses = new ArrayList<>();
+        catalogReader.forEach(CourseDocument.class, FIELDS, courses::add);
+        load(courses);
+        log.info("Catalog snapshot built with {} courses", courses.size());
+    }
+
+    /** Replaces the snapshot with the given courses, in the order the fallback should break sort ties. */
+    public void load(List<CourseDocument> courses) {
+        columns = Columns.build(courses);
+    }
+
+    /** Immutable column store; one instance per build, swapped in atomically. */
+    static final class Columns {
+        private static final byte SORT_DATE = 0, SORT_PRICE_ASC = 1, SORT_PRICE_DESC = 2;
+        // Scratch bitsets retained for reuse; requests run on virtual threads, so a ThreadLocal would not be reused
+        private static final int SCRATCH_POOL = 2 * Runtime.getRuntime().availableProcessors();
+
+        final int size;
+        private final String[] ids;
+        private final String[] titles;
+        private final String[] descriptions;
+        private final int[] minAges;            // Integer.MIN_VALUE when missing
+        private final int[] maxAges;            // Integer.MAX_VALUE when missing
+        private final double[] prices;          // NaN when missing, fails every price comparison
+        private final long[] sessionSeconds;    // Long.MIN_VALUE when missing
+        private final int[] sessionNanos;
+        private final DictionaryColumn categories;
+        private final DictionaryColumn types;
+        private final DictionaryColumn gradeRanges;
+        private final BlockingQueue<BitSet> scratch = new ArrayBlockingQueue<>(SCRATCH_POOL);
+
+        private Columns(int size) {
+            this.size = size;
+            ids = new String[size];
+            titles = new String[size];
+            descriptions = new String[size];
+            minAges = new int[size];
+            maxAges = new int[size];
+            prices = new double[size];
+            sessionSeconds = new long[size];
+            sessionNanos = new int[size];
+            categories = new DictionaryColumn(size, true);
+            types = new DictionaryColumn(size, true);
+            gradeRanges = new DictionaryColumn(size, false);
+        }
+
+        static Columns build(List<CourseDocument> courses) {
+            Columns c = new Columns(courses.size());
+            for (int i = 0; i < c.size; i++) {
+                CourseDocument d = courses.get(i);
+                c.ids[i] = d.getId();
+                c.titles[i] = d.getTitle();
+                c.descriptions[i] = d.getDescription();
+                c.minAges[i] = d.getMinAge() != null ? d.getMinAge() : Integer.MIN_VALUE;
+                c.maxAges[i] = d.getMaxAge() != null ? d.getMaxAge() : Integer.MAX_VALUE;
+                c.prices[i] = d.getPrice() != null ? d.getPrice() : Double.NaN;
+                c.sessionSeconds[i] = d.getNextSessionDate() != null ? d.getNextSessionDate().getEpochSecond() : Long.MIN_VALUE;
+                c.sessionNanos[i] = d.getNextSessionDate() != null ? d.getNextSessionDate().getNano() : 0;
+                c.categories.set(i, d.getCategory());
+                c.types.set(i, d.getType());
+                c.gradeRanges.set(i, d.getGradeRange());
+            }
+            return c;
+        }
+
+        SearchService.RepoSearchResult<CourseDocument> search(String q, Integer minAge, Integer maxAge,
+                                              String category, String type,
+                                              Double minPrice, Double maxPrice,
+                                              Instant startDate, String sort,
+                                              int page, int size) {
+            BitSet candidates = borrowScratch();
+            try {
+                return search(candidates, q, minAge, maxAge, category, type, minPrice, maxPrice, startDate, sort, page, size);
+            } finally {
+                scratch.offer(candidates);
+            }
+        }
+
+        private SearchService.RepoSearchResult<CourseDocument> search(BitSet candidates, String q,
+                                                                      Integer minAge, Integer maxAge,
+                                                                      String category, String type,
+                                                                      Double minPrice, Double maxPrice,
+                                                                      Instant startDate, String sort,
+                                                                      int page, int size) {
+            // Keyword-free equality filters first: one word-wise AND over precomputed bitsets
+            candidates.set(0, this.size);
+            if (category != null && !category.isBlank() && !categories.intersect(candidates, category)) {
+                return new SearchService.RepoSearchResult<>(0, List.of());
+            }
+            if (type != null && !type.isBlank() && !types.intersect(candidates, type)) {
+                return new SearchService.RepoSearchResult<>(0, List.of());
+            }
+
+            String keyword = q == null || q.isBlank() ? null : q.toLowerCase(Locale.ROOT);
+            int min = minAge != null ? minAge : Integer.MIN_VALUE;
+            int max = maxAge != null ? maxAge : Integer.MAX_VALUE;
+            long startSeconds = startDate != null ? startDate.getEpochSecond() : Long.MIN_VALUE;
+            int startNanos = startDate != null ? startDate.getNano() : 0;
+            byte order = "priceAsc".equalsIgnoreCase(sort) ? SORT_PRICE_ASC
+                    : "priceDesc".equalsIgnoreCase(sort) ? SORT_PRICE_DESC : SORT_DATE;
+
+            int from = page * size;
+            TopK top = new TopK(from + size, order);
+            int total = 0;
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                if (minAge != null && minAges[i] < min) continue;
+                if (maxAge != null && maxAges[i] > max) continue;
+                if (minPrice != null && !(prices[i] >= minPrice)) continue;
+                if (maxPrice != null && !(prices[i] <= maxPrice)) continue;
+                if (startDate != null && compareSession(i, startSeconds, startNanos) < 0) continue;
+                if (keyword != null && !(containsIgnoreCase(titles[i], keyword) || containsIgnoreCase(descriptions[i], keyword))) continue;
+                total++;
+                top.offer(i);
+            }
+
+            int[] ranked = top.sorted();
+            List<CourseDocument> hits = new ArrayList<>(Math.max(0, ranked.length - from));
+            for (int r = from; r < ranked.length; r++) {
+                hits.add(document(ranked[r]));
+            }
+            return new SearchService.RepoSearchResult<>(total, hits);
+        }
+
+        private BitSet borrowScratch() {
+            BitSet bits = scratch.poll();
+            if (bits == null) return new BitSet(size);
+            bits.clear();
+            return bits;
+        }
+
+        /** Rebuilds one row as a document; only the rows of the returned page pay for this. */
+        private CourseDocument document(int row) {
+            CourseDocument d = new CourseDocument();
+            d.setId(ids[row]);
+            d.setTitle(titles[row]);
+            d.setDescription(descriptions[row]);
+            d.setCategory(categories.get(row));
+            d.setType(types.get(row));
+            d.setGradeRange(gradeRanges.get(row));
+            d.setMinAge(minAges[row] != Integer.MIN_VALUE ? minAges[row] : null);
+            d.setMaxAge(maxAges[row] != Integer.MAX_VALUE ? maxAges[row] : null);
+            d.setPrice(Double.isNaN(prices[row]) ? null : prices[row]);
+            d.setNextSessionDate(sessionSeconds[row] != Long.MIN_VALUE
+                    ? Instant.ofEpochSecond(sessionSeconds[row], sessionNanos[row]) : null);
+            return d;
+        }
+
+        private int compareSession(int row, long seconds, int nanos) {
+            int cmp = Long.compare(sessionSeconds[row], seconds);
+            return cmp != 0 ? cmp : Integer.compare(sessionNanos[row], nanos);
+        }
+
+        // keyword is already lower-cased
+        static boolean containsIgnoreCase(String text, String keyword) {
+            if (text == null) return false;
+            int last = text.length() - keyword.length();
+            char first = keyword.charAt(0);
+            for (int i = 0; i <= last; i++) {
+                if (Character.toLowerCase(text.charAt(i)) == first && text.regionMatches(true, i, keyword, 0, keyword.length())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Dictionary-encoded string column: one code per row and one string per distinct value.
+         * Filterable columns also keep the bitset of rows per case-folded value, so an equality
+         * filter is a single bitset AND.
+         */
+        private static final class DictionaryColumn {
+            private final int size;
+            private final int[] codes;          // -1 when missing
+            private final Map<String, Integer> codeByValue = new HashMap<>();
+            private final List<String> values = new ArrayList<>();
+            private final Map<String, BitSet> rowsByFolded;
+
+            DictionaryColumn(int size, boolean filterable) {
+                this.size = size;
+                this.codes = new int[size];
+                this.rowsByFolded = filterable ? new HashMap<>() : null;
+                Arrays.fill(codes, -1);
+            }
+
+            void set(int row, String value) {
+                if (value == null) return;
+                codes[row] = codeByValue.computeIfAbsent(value, k -> {
+                    values.add(k);
+                    return values.size() - 1;
+                });
+                if (rowsByFolded != null) {
+                    rowsByFolded.computeIfAbsent(value.toLowerCase(Locale.ROOT), k -> new BitSet(size)).set(row);
+                }
+            }
+
+            String get(int row) {
+                return codes[row] < 0 ? null : values.get(codes[row]);
+            }
+
+            /** Narrows candidates to rows holding the value; false when no row holds it. */
+            boolean intersect(BitSet candidates, String value) {
+                BitSet rows = rowsByFolded.get(value.toLowerCase(Locale.ROOT));
+                if (rows == null) return false;
+                candidates.and(rows);
+                return true;
+            }
+        }
+
+        /**
+         * Bounded max-heap of row ids: the root is the worst row kept, so each candidate costs one
+         * comparison unless it beats it. Ties fall back to row order, like the stable stream sort.
+         */
+        private final class TopK {
+            private final int[] heap;
+            private final byte order;
+            private int count;
+
+            TopK(int capacity, byte order) {
+                this.heap = new int[Math.max(0, Math.min(capacity, size))];
+                this.order = order;
+            }
+
+            void offer(int row) {
+                if (heap.length == 0) return;
+                if (count < heap.length) {
+                    heap[count] = row;
+                    siftUp(count++);
+                } else if (compare(row, heap[0]) < 0) {
+                    heap[0] = row;
+                    siftDown(0, count);
+                }
+            }
+
+            /** Drains the heap in place into ascending order. */
+            int[] sorted() {
+                for (int end = count - 1; end > 0; end--) {
+                    swap(0, end);
+                    siftDown(0, end);
+                }
+                return count == heap.length ? heap : Arrays.copyOf(heap, count);
+            }
+
+            private int compare(int a, int b) {
+                int cmp = switch (order) {
+                    case SORT_PRICE_ASC -> Double.compare(prices[a], prices[b]);
+                    case SORT_PRICE_DESC -> Double.compare(prices[b], prices[a]);
+                    default -> compareSession(a, sessionSeconds[b], sessionNanos[b]);
+                };
+                return cmp != 0 ? cmp : Integer.compare(a, b);
+            }
+
+            private void siftUp(int i) {
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (compare(heap[i], heap[parent]) <= 0) return;
+                    swap(i, parent);
+                    i = parent;
+                }
+            }
+
+            private void siftDown(int i, int end) {
+                while (true) {
+                    int left = 2 * i + 1;
+                    if (left >= end) return;
+                    int largest = left + 1 < end && compare(heap[left + 1], heap[left]) > 0 ? left + 1 : left;
+                    if (compare(heap[largest], heap[i]) <= 0) return;
+                    swap(i, largest);
+                    i = largest;
+                }
+            }
+
+            private void swap(int a, int b) {
+                int t = heap[a];
+                heap[a] = heap[b];
+                heap[b] = t;
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.brightRassignment.Service;
+
+import com.example.brightRassignment.Document.CourseDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Hits, suggestions and facet counts for one query, fetched concurrently on virtual threads.
+ * All parts share one deadline; whatever has not finished by then is reported as missing instead
+ * of holding up the parts that did finish, and left to complete in the background.
+ */
+@Service
+public class CombinedSearchService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CombinedSearchService.class);
+
+    public static final String HITS = "hits";
+    public static final String SUGGESTIONS = "suggestions";
+    public static final String FACETS = "facets";
+
+    private final SearchService searchService;
+    private final Duration timeout;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("search-fanout-", 0).factory());
+
+    public CombinedSearchService(SearchService searchService,
+                                 @Value("${search.combined.timeout:500ms}") Duration timeout) {
+        this.searchService = searchService;
+        this.timeout = timeout;
+    }
+
+    public CombinedSearchResult search(String q, Integer minAge, Integer maxAge,
+                                       String category, String type,
+                                       Double minPrice, Double maxPrice,
+                                       Instant startDate, String sort,
+                                       int page, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        boolean keyword = q != null && !q.isBlank();
+
+        Map<String, Future<?>> parts = new LinkedHashMap<>();
+        parts.put(HITS, submit(() -> keyword
+                ? searchService.searchCoursesFuzzy(q, minAge, maxAge, category, type, minPrice, maxPrice, startDate, sort, page, size)
+                : searchService.searchCoursesFiltered(minAge, maxAge, category, type, minPrice, maxPrice, startDate, sort, page, size)));
+        // Counts only: size 0 skips fetching the documents a second time
+        parts.put(FACETS, submit(() -> searchService.searchCoursesFaceted(q, minAge, maxAge,
+                category, type, minPrice, maxPrice, startDate, sort, 0, 0)));
+        if (keyword) {
+            parts.put(SUGGESTIONS, submit(() -> searchService.getSuggestions(q)));
+        }
+
+        Map<String, Object> done = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        try {
+            for (Map.Entry<String, Future<?>> part : parts.entrySet()) {
+                try {
+                    long remaining = Math.max(0, deadline - System.nanoTime());
+                    done.put(part.getKey(), part.getValue().get(remaining, TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    missing.add(part.getKey());
+                } catch (ExecutionException e) {
+                    log.warn("Combined search part '{}' failed", part.getKey(), e.getCause());
+                    missing.add(part.getKey());
+                }
+            }
+        } finally {
+            // Late parts are not interrupted: the sync client cannot abort a request mid-flight, and an
+            // interrupted call marks a healthy node dead. They finish on their own and fill the cache.
+            parts.values().forEach(f -> f.cancel(false));
+        }
+        return CombinedSearchResult.of(done, missing);
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        return executor.submit(task);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    public static class CombinedSearchResult {
+        private final Integer total;
+        private final List<CourseDocument> courses;
+        private final List<String> suggestions;
+        private final Map<String, List<SearchService.FacetBucket>> facets;
+        private final List<String> missing;
+
+        public CombinedSearchResult(Integer total, List<CourseDocument> courses, List<String> suggestions,
+                                    Map<String, List<SearchService.FacetBucket>> facets, List<String> missing) {
+            this.total = total;
+            this.courses = courses;
+            this.suggestions = suggestions;
+            this.facets = facets;
+            this.missing = missing;
+        }
+
+        @SuppressWarnings("unchecked")
+        static CombinedSearchResult of(Map<String, Object> parts, List<String> missing) {
+            Object hits = parts.get(HITS);
+            SearchService.FacetedSearchResult<?> counts = (SearchService.FacetedSearchResult<?>) parts.get(FACETS);
+            Integer total = counts != null ? counts.getTotal() : null;
+            List<CourseDocument> courses = null;
+            if (hits instanceof SearchService.RepoSearchResult<?> result) {
+                total = result.getTotal();
+                courses = (List<CourseDocument>) result.getCourses();
+            } else if (hits instanceof List<?> list) {
+                courses = (List<CourseDocument>) list;
+            }
+            return new CombinedSearchResult(total, courses,
+                    (List<String>) parts.get(SUGGESTIONS),
+                    counts != null ? counts.getFacets() : null,
+                    missing);
+        }
+
+        /** Keyword searches take the count from the facets part, so this is null only if both are missing. */
+        public Integer getTotal() { return total; }
+        public List<CourseDocument> getCourses() { return courses; }
+        public List<String> getSuggestions() { return suggestions; }
+        public Map<String, List<SearchService.FacetBucket>> getFacets() { return facets; }
+        /** Parts that failed or missed the deadline. */
+        public List<String> getMissing() { return missing; }
+    }
+}
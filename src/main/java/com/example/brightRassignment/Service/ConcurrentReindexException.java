@@ -0,0 +1,16 @@
+package com.example.brightRassignment.Service;
+
+/** Another instance created the same {@code courses-v{n}} first and is loading it. */
+public class ConcurrentReindexException extends IllegalStateException {
+
+    private final String index;
+
+    public ConcurrentReindexException(String index) {
+        super(index + " is already being built by another reindex");
+        this.index = index;
+    }
+
+    public String index() {
+        return index;
+    }
+}
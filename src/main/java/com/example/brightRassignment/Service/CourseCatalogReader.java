@@ -0,0 +1,53 @@
+package com.example.brightRassignment.Service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Walks the whole courses index in id order with search_after, for building in-process views
+ * of the catalog. Only the requested source fields are fetched.
+ */
+@Component
+public class CourseCatalogReader {
+
+    private static final String INDEX = "courses";
+    private static final int BATCH_SIZE = 1000;
+
+    private final ElasticsearchClient client;
+
+    public CourseCatalogReader(ElasticsearchClient client) {
+        this.client = client;
+    }
+
+    public <T> void forEach(Class<T> type, List<String> includes, Consumer<T> consumer) throws IOException {
+        List<FieldValue> after = null;
+        while (true) {
+            final List<FieldValue> searchAfter = after;
+            SearchResponse<T> response = client.search(s -> {
+                        s.index(INDEX)
+                                .size(BATCH_SIZE)
+                                .sort(so -> so.field(f -> f.field("id").order(SortOrder.Asc)));
+                        if (!includes.isEmpty()) s.source(src -> src.filter(f -> f.includes(includes)));
+                        if (searchAfter != null) s.searchAfter(searchAfter);
+                        return s;
+                    },
+                    type
+            );
+
+            List<Hit<T>> hits = response.hits().hits();
+            for (Hit<T> hit : hits) {
+                if (hit.source() != null) consumer.accept(hit.source());
+            }
+            if (hits.size() < BATCH_SIZE) return;
+            after = hits.get(hits.size() - 1).sort();
+        }
+    }
+}
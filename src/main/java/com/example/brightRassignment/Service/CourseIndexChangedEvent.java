@@ -0,0 +1,8 @@
+package com.example.brightRassignment.Service;
+
+/**
+ * Published whenever documents in the courses index are written, deleted or replaced,
+ * so in-process views of the catalog (caches, suggesters, snapshots) can be refreshed.
+ */
+public record CourseIndexChangedEvent(String reason) {
+}
@@ -0,0 +1,353 @@
+package com.example.brightRassignment.Service;
+
+import com.example.brightRassignment.Document.CourseDocument;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.BulkOptions;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a JSON array of courses into Elasticsearch without materialising it: documents are parsed one
+ * at a time, grouped into bulk requests by count and byte size, and sent with a bounded number of
+ * requests in flight. Items rejected with 429/503 are retried with exponential backoff.
+ */
+@Service
+public class CourseIngestService {
+
+    public static final IndexCoordinates COURSES = IndexCoordinates.of("courses");
+
+    private static final Logger log = LoggerFactory.getLogger(CourseIngestService.class);
+    private static final int MAX_REPORTED_FAILURES = 100;
+
+    // Band keys sort in band order, so facets can be ordered by key
+    private static final List<Band> PRICE_BANDS = List.of(
+            new Band("0-10", 0, 10),
+            new Band("10-25", 10, 25),
+            new Band("25-50", 25, 50),
+            new Band("50+", 50, Double.POSITIVE_INFINITY));
+    private static final List<Band> AGE_BANDS = List.of(
+            new Band("00-05", 0, 6),
+            new Band("06-08", 6, 9),
+            new Band("09-12", 9, 13),
+            new Band("13-17", 13, 18),
+            new Band("18+", 18, Double.POSITIVE_INFINITY));
+
+    private final ElasticsearchOperations operations;
+    private final ObjectMapper objectMapper;
+    private final ResourceLoader resourceLoader;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SearchMetrics searchMetrics;
+    private final ElasticsearchGuard esGuard;
+    private final int batchSize;
+    private final long batchBytes;
+    private final int maxInFlight;
+    private final int maxRetries;
+    private final Duration initialBackoff;
+    private final String catalogSource;
+    private final Path sourceDir;
+
+    public CourseIngestService(ElasticsearchOperations operations, ObjectMapper objectMapper,
+                               ResourceLoader resourceLoader, ApplicationEventPublisher eventPublisher,
+                               SearchMetrics searchMetrics, ElasticsearchGuard esGuard,
+                               @Value("${ingest.batch-size:500}") int batchSize,
+                               @Value("${ingest.batch-bytes:5MB}") DataSize batchBytes,
+                               @Value("${ingest.max-in-flight:2}") int maxInFlight,
+                               @Value("${ingest.max-retries:3}") int maxRetries,
+                               @Value("${ingest.initial-backoff:200ms}") Duration initialBackoff,
+                               @Value("${catalog.source:classpath:sample-courses.json}") String catalogSource,
+                               @Value("${catalog.source-dir:}") String sourceDir) {
+        this.operations = operations;
+        this.objectMapper = objectMapper;
+        this.resourceLoader = resourceLoader;
+        this.eventPublisher = eventPublisher;
+        this.searchMetrics = searchMetrics;
+        this.esGuard = esGuard;
+        this.batchSize = batchSize;
+        this.batchBytes = batchBytes.toBytes();
+        this.maxInFlight = maxInFlight;
+        this.maxRetries = maxRetries;
+        this.initialBackoff = initialBackoff;
+        this.catalogSource = catalogSource;
+        this.sourceDir = sourceDir.isBlank() ? null : Path.of(sourceDir).toAbsolutePath().normalize();
+    }
+
+    public IngestReport ingest(String location) throws IOException {
+        return ingest(location, COURSES);
+    }
+
+    public IngestReport ingest(String location, IndexCoordinates index) throws IOException {
+        Progress progress = new Progress();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        try (InputStream in = open(location);
+             JsonParser parser = objectMapper.createParser(in);
+             ExecutorService executor = Executors.newFixedThreadPool(maxInFlight)) {
+
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of courses in " + location);
+            }
+
+            List<CourseDocument> batch = new ArrayList<>(batchSize);
+            long bytes = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                long start = parser.currentTokenLocation().getByteOffset();
+                CourseDocument course = parser.readValueAs(CourseDocument.class);
+                bytes += parser.currentLocation().getByteOffset() - start;
+                progress.read.incrementAndGet();
+                try {
+                    batch.add(prepare(course));
+                } catch (IllegalArgumentException e) {
+                    // Reported like a course Elasticsearch rejected, without failing the rest of the load
+                    progress.fail(course.getId(), 400, e.getMessage());
+                    continue;
+                }
+
+                if (batch.size() >= batchSize || bytes >= batchBytes) {
+                    submit(batch, index, executor, inFlight, progress);
+                    batch = new ArrayList<>(batchSize);
+                    bytes = 0;
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(batch, index, executor, inFlight, progress);
+            }
+        } // closing the executor waits for the remaining bulk requests
+
+        operations.indexOps(index).refresh();
+        // A courses-v{n} being built is not searched yet; the reindex announces it after the alias swap
+        if (COURSES.equals(index)) {
+            eventPublisher.publishEvent(new CourseIndexChangedEvent("ingest " + location));
+        }
+
+        IngestReport report = progress.toReport();
+        log.info("Ingested {} of {} courses from {} into {} ({} failed)",
+                report.indexed(), report.read(), location, index.getIndexName(), report.failed());
+        return report;
+    }
+
+    /** Fills in the derived fields every indexed course must carry. */
+    public CourseDocument prepare(CourseDocument course) {
+        if (course.getNextSessionDate() == null) course.setNextSessionDate(Instant.now());
+        if (course.getTitle() != null) course.setAutocomplete(new Completion(new String[]{course.getTitle()}));
+        deriveFilterFields(course);
+        return course;
+    }
+
+    /** Rejects an age range Elasticsearch could not index as an {@code integer_range}. */
+    public static void checkAgeRange(CourseDocument course) {
+        if (course.getMinAge() != null && course.getMaxAge() != null && course.getMinAge() > course.getMaxAge()) {
+            throw new IllegalArgumentException("Course " + course.getId() + ": minAge " + course.getMinAge()
+                    + " is greater than maxAge " + course.getMaxAge());
+        }
+    }
+
+    /**
+     * Sets the age range and the price/age bands from minAge, maxAge and price.
+     *
+     * @throws IllegalArgumentException if minAge is greater than maxAge
+     */
+    public static void deriveFilterFields(CourseDocument course) {
+        checkAgeRange(course);
+        Integer minAge = course.getMinAge();
+        Integer maxAge = course.getMaxAge();
+        course.setAgeRange(minAge == null && maxAge == null ? null : new CourseDocument.AgeRange(minAge, maxAge));
+        course.setPriceBand(course.getPrice() == null ? null : band(PRICE_BANDS, course.getPrice()));
+
+        List<String> ageBands = new ArrayList<>();
+        if (minAge != null || maxAge != null) {
+            int from = minAge != null ? minAge : 0;
+            int to = maxAge != null ? maxAge : Integer.MAX_VALUE;
+            for (Band band : AGE_BANDS) {
+                if (band.from() <= to && from < band.to()) ageBands.add(band.key());
+            }
+        }
+        course.setAgeBands(ageBands.isEmpty() ? null : ageBands);
+    }
+
+    private static String band(List<Band> bands, double value) {
+        for (Band band : bands) {
+            if (value < band.to()) return band.key();
+        }
+        return bands.get(bands.size() - 1).key();
+    }
+
+    // [from, to)
+    private record Band(String key, double from, double to) {}
+
+    /**
+     * @param location the configured {@code catalog.source}, or a file inside {@code catalog.source-dir}
+     *                 given as {@code file:...} or a plain path
+     * @throws IllegalArgumentException for any other location
+     */
+    public InputStream open(String location) throws IOException {
+        Resource resource = location.equals(catalogSource)
+                ? resourceLoader.getResource(location)
+                : new FileSystemResource(allowedPath(location));
+        if (!resource.exists()) {
+            throw new FileNotFoundException("Course catalog not found: " + location);
+        }
+        return resource.getInputStream();
+    }
+
+    // Symlinks are resolved before the check, so a link inside the directory can't point outside it
+    private Path allowedPath(String location) throws IOException {
+        Path path = null;
+        if (sourceDir != null && !location.startsWith("classpath:")) {
+            try {
+                path = (location.startsWith("file:") ? Path.of(URI.create(location)) : Path.of(location))
+                        .toAbsolutePath().normalize();
+            } catch (IllegalArgumentException e) {
+                // not a usable file location (InvalidPathException included)
+            }
+        }
+        if (path == null || !path.startsWith(sourceDir)
+                || (Files.exists(path) && !path.toRealPath().startsWith(sourceDir.toRealPath()))) {
+            throw new IllegalArgumentException("Catalog source not allowed: " + location
+                    + " (expected catalog.source or a file under catalog.source-dir)");
+        }
+        return path;
+    }
+
+    private void submit(List<CourseDocument> batch, IndexCoordinates index, ExecutorService executor,
+                        Semaphore inFlight, Progress progress) throws IOException {
+        try {
+            inFlight.acquire(); // back-pressure: the parser waits while maxInFlight bulks are outstanding
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a bulk slot", e);
+        }
+        executor.execute(() -> {
+            try {
+                indexWithRetry(batch, index, progress);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void indexWithRetry(List<CourseDocument> batch, IndexCoordinates index, Progress progress) {
+        List<CourseDocument> pending = batch;
+        for (int attempt = 0; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                List<IndexQuery> queries = toQueries(pending);
+                // Waits for an ingest slot: the shared limit shrinks while Elasticsearch is slow
+                esGuard.callBlocking(ElasticsearchGuard.Bulkhead.INGEST,
+                        () -> operations.bulkIndex(queries, BulkOptions.defaultOptions(), index));
+                searchMetrics.recordBulk(pending.size(), System.nanoTime() - start, null);
+                progress.indexed.addAndGet(pending.size());
+                return;
+            } catch (BulkFailureException e) {
+                searchMetrics.recordBulk(pending.size(), System.nanoTime() - start, e);
+                Map<String, BulkFailureException.FailureDetails> failed = e.getFailedDocuments();
+                progress.indexed.addAndGet(pending.size() - failed.size());
+
+                boolean canRetry = attempt < maxRetries;
+                List<CourseDocument> retry = new ArrayList<>();
+                Map<String, CourseDocument> byId = pending.stream()
+                        .filter(c -> c.getId() != null)
+                        .collect(Collectors.toMap(CourseDocument::getId, c -> c, (a, b) -> b));
+                failed.forEach((id, details) -> {
+                    if (canRetry && isRetryable(details.status()) && byId.containsKey(id)) {
+                        retry.add(byId.get(id));
+                    } else {
+                        progress.fail(id, details.status(), details.errorMessage());
+                    }
+                });
+                if (retry.isEmpty()) return;
+                pending = retry;
+            } catch (IOException | RuntimeException e) {
+                searchMetrics.recordBulk(pending.size(), System.nanoTime() - start, e);
+                // Whole request failed (connection, timeout): retry the batch as a unit
+                if (attempt >= maxRetries) {
+                    pending.forEach(c -> progress.fail(c.getId(), null, e.getMessage()));
+                    return;
+                }
+            }
+            if (!sleep(initialBackoff.multipliedBy(1L << attempt))) {
+                pending.forEach(c -> progress.fail(c.getId(), null, "interrupted"));
+                return;
+            }
+        }
+    }
+
+    private List<IndexQuery> toQueries(List<CourseDocument> courses) {
+        List<IndexQuery> queries = new ArrayList<>(courses.size());
+        for (CourseDocument c : courses) {
+            queries.add(new IndexQueryBuilder().withId(c.getId()).withObject(c).build());
+        }
+        return queries;
+    }
+
+    private static boolean isRetryable(Integer status) {
+        return status != null && (status == 429 || status == 503);
+    }
+
+    private static boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public record ItemFailure(String id, Integer status, String message) {}
+
+    /** Outcome of one ingest run; {@code failures} lists at most the first 100 failed items. */
+    public record IngestReport(long read, long indexed, long failed, List<ItemFailure> failures) {}
+
+    private static final class Progress {
+        final AtomicLong read = new AtomicLong();
+        final AtomicLong indexed = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final List<ItemFailure> failures = new ArrayList<>();
+
+        void fail(String id, Integer status, String message) {
+            failed.incrementAndGet();
+            synchronized (failures) {
+                if (failures.size() < MAX_REPORTED_FAILURES) failures.add(new ItemFailure(id, status, message));
+            }
+            log.warn("Failed to index course {}: {} {}", id, status, message);
+        }
+
+        IngestReport toReport() {
+            synchronized (failures) {
+                return new IngestReport(read.get(), indexed.get(), failed.get(), List.copyOf(failures));
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.brightRassignment.Service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import com.example.brightRassignment.Document.CourseDocument;
+import com.example.brightRassignment.Service.CourseIngestService.IngestReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Zero-downtime catalog reloads. Every reload builds a fresh {@code courses-v{n}} index tuned for bulk
+ * loading (no refresh, no replicas), restores the mapped settings, warms it and then moves the
+ * {@code courses} alias onto it in one atomic alias update. Older versions are kept for rollback.
+ * <p>
+ * The new version holds exactly the catalog source: API edits made before a reindex are discarded.
+ * Edits made during one are held by {@link CourseWriteBuffer} on this instance and applied after the swap.
+ */
+@Service
+public class CourseReindexService {
+
+    public static final String ALIAS = "courses";
+    private static final String VERSION_PREFIX = ALIAS + "-v";
+    private static final String REFRESH_INTERVAL = "index.refresh_interval";
+    private static final String NUMBER_OF_REPLICAS = "index.number_of_replicas";
+    private static final String FINGERPRINT_META = "catalog_fingerprint";
+
+    private static final Logger log = LoggerFactory.getLogger(CourseReindexService.class);
+
+    private final ElasticsearchClient client;
+    private final ElasticsearchOperations operations;
+    private final CourseIngestService ingestService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CourseWriteBuffer writeBuffer;
+    private final int retainVersions;
+
+    public CourseReindexService(ElasticsearchClient client, ElasticsearchOperations operations,
+                                CourseIngestService ingestService, ApplicationEventPublisher eventPublisher,
+                                CourseWriteBuffer writeBuffer,
+                                @Value("${reindex.retain-versions:2}") int retainVersions) {
+        this.client = client;
+        this.operations = operations;
+        this.ingestService = ingestService;
+        this.eventPublisher = eventPublisher;
+        this.writeBuffer = writeBuffer;
+        this.retainVersions = retainVersions;
+    }
+
+    public ReindexResult reindex(String source) throws IOException {
+        return reindex(source, fingerprint(source));
+    }
+
+    /**
+     * {@code synchronized} only covers this instance; across instances, creating {@code courses-v{n}} is
+     * what decides who builds it, and the loser gets a {@link ConcurrentReindexException}.
+     *
+     * @throws IncompleteReindexException if any course failed to index; the new version is deleted and the
+     *                                    alias keeps pointing at the current one
+     * @param fingerprint value of {@link #fingerprint(String)} for {@code source}, stored in the new index's
+     *                    mapping {@code _meta} so an unchanged catalog can be detected on the next start
+     */
+    public synchronized ReindexResult reindex(String source, String fingerprint) throws IOException {
+        writeBuffer.pause();
+        try {
+            return build(source, fingerprint);
+        } finally {
+            writeBuffer.resume();
+        }
+    }
+
+    private ReindexResult build(String source, String fingerprint) throws IOException {
+        List<String> versions = listVersions();
+        String target = VERSION_PREFIX + (versions.isEmpty() ? 1 : versionOf(versions.get(versions.size() - 1)) + 1);
+
+        IndexOperations courseOps = operations.indexOps(CourseDocument.class);
+        Settings mapped = courseOps.createSettings().flatten();
+        Settings bulkLoad = new Settings(mapped);
+        bulkLoad.put(REFRESH_INTERVAL, "-1");
+        bulkLoad.put(NUMBER_OF_REPLICAS, 0);
+        Document mapping = courseOps.createMapping();
+        mapping.put("_meta", Map.of(FINGERPRINT_META, fingerprint));
+        try {
+            operations.indexOps(IndexCoordinates.of(target)).create(bulkLoad, mapping);
+        } catch (RuntimeException e) {
+            if (alreadyExists(e)) throw new ConcurrentReindexException(target);
+            throw e;
+        }
+        log.info("Created {} for bulk load", target);
+
+        IngestReport report;
+        try {
+            report = ingestService.ingest(source, IndexCoordinates.of(target));
+        } catch (IOException | RuntimeException e) {
+            // Never leave a half-built version behind for the next reindex to number past
+            client.indices().delete(d -> d.index(target));
+            throw e;
+        }
+        if (report.failed() > 0) {
+            // A partial catalog must not go live, and its fingerprint must not mark the source as loaded
+            client.indices().delete(d -> d.index(target));
+            log.warn("{} of {} courses failed to index into {}, deleted it", report.failed(), report.read(), target);
+            throw new IncompleteReindexException(target, report);
+        }
+
+        String refreshInterval = String.valueOf(mapped.getOrDefault(REFRESH_INTERVAL, "1s"));
+        String replicas = String.valueOf(mapped.getOrDefault(NUMBER_OF_REPLICAS, 1));
+        client.indices().putSettings(p -> p
+                .index(target)
+                .settings(s -> s
+                        .refreshInterval(t -> t.time(refreshInterval))
+                        .numberOfReplicas(replicas)
+                )
+        );
+        client.indices().refresh(r -> r.index(target));
+        warm(target);
+
+        List<String> previous = swapAlias(target);
+        List<String> deleted = pruneVersions(target);
+        eventPublisher.publishEvent(new CourseIndexChangedEvent("alias swapped to " + target));
+        log.info("Alias '{}' now points to {} (was {}), removed {}", ALIAS, target, previous, deleted);
+        return new ReindexResult(target, previous, deleted, report);
+    }
+
+    /** Points the alias back at the newest version older than the current one. */
+    public synchronized String rollback() throws IOException {
+        Set<String> current = aliasTargets();
+        int currentVersion = current.stream()
+                .filter(i -> i.startsWith(VERSION_PREFIX))
+                .mapToInt(CourseReindexService::versionOf)
+                .max()
+                .orElseThrow(() -> new IllegalStateException("Alias '" + ALIAS + "' does not point to a versioned index"));
+        String target = listVersions().stream()
+                .filter(i -> versionOf(i) < currentVersion)
+                .reduce((a, b) -> b)
+                .orElseThrow(() -> new IllegalStateException("No older version to roll back to"));
+
+        swapAlias(target);
+        eventPublisher.publishEvent(new CourseIndexChangedEvent("alias rolled back to " + target));
+        log.info("Alias '{}' rolled back to {}", ALIAS, target);
+        return target;
+    }
+
+    /**
+     * SHA-256 over the index settings, the mapping and the catalog bytes, so a changed mapping
+     * triggers a reload just like changed data does.
+     */
+    public String fingerprint(String source) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        IndexOperations courseOps = operations.indexOps(CourseDocument.class);
+        digest.update(courseOps.createSettings().toJson().getBytes(StandardCharsets.UTF_8));
+        digest.update(courseOps.createMapping().toJson().getBytes(StandardCharsets.UTF_8));
+        try (InputStream in = ingestService.open(source);
+             OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            in.transferTo(out);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** Fingerprint stored with the index the alias currently points to, or null if there is none. */
+    public String currentFingerprint() throws IOException {
+        if (!isAliased()) return null;
+        return client.indices().getMapping(g -> g.index(ALIAS)).result().values().stream()
+                .map(m -> m.mappings().meta())
+                .filter(meta -> meta != null && meta.containsKey(FINGERPRINT_META))
+                .map(meta -> meta.get(FINGERPRINT_META).to(String.class))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /** False on first start and while 'courses' is still a plain, unversioned index. */
+    public boolean isAliased() throws IOException {
+        return client.indices().existsAlias(e -> e.name(ALIAS)).value();
+    }
+
+    /** Versioned course indices, oldest first. */
+    public List<String> listVersions() throws IOException {
+        List<String> versions = new ArrayList<>(client.indices().get(g -> g.index(VERSION_PREFIX + "*")).result().keySet());
+        versions.removeIf(i -> versionOf(i) < 0);
+        versions.sort(Comparator.comparingInt(CourseReindexService::versionOf));
+        return versions;
+    }
+
+    private Set<String> aliasTargets() throws IOException {
+        if (!isAliased()) return Set.of();
+        return client.indices().getAlias(g -> g.name(ALIAS)).result().keySet();
+    }
+
+    // Runs the common query shapes once so the first user queries don't pay for loading doc values
+    private void warm(String index) throws IOException {
+        client.search(s -> s
+                        .index(index)
+                        .size(10)
+                        .query(q -> q.matchAll(m -> m))
+                        .sort(so -> so.field(f -> f.field("nextSessionDate").order(SortOrder.Asc))),
+                Void.class
+        );
+        client.search(s -> s
+                        .index(index)
+                        .size(0)
+                        .query(q -> q.range(r -> r.field("price").gte(co.elastic.clients.json.JsonData.of(0)))),
+                Void.class
+        );
+    }
+
+    private List<String> swapAlias(String target) throws IOException {
+        List<String> previous = new ArrayList<>(aliasTargets());
+        List<Action> actions = new ArrayList<>();
+        for (String index : previous) {
+            actions.add(Action.of(a -> a.remove(r -> r.index(index).alias(ALIAS))));
+        }
+        // A concrete index named like the alias (pre-versioning layout) is dropped in the same atomic update
+        if (previous.isEmpty() && client.indices().exists(e -> e.index(ALIAS)).value()) {
+            actions.add(Action.of(a -> a.removeIndex(r -> r.index(ALIAS))));
+            previous.add(ALIAS);
+        }
+        actions.add(Action.of(a -> a.add(ad -> ad.index(target).alias(ALIAS).isWriteIndex(true))));
+        client.indices().updateAliases(u -> u.actions(actions));
+        return previous;
+    }
+
+    private List<String> pruneVersions(String current) throws IOException {
+        List<String> older = listVersions();
+        older.removeIf(i -> versionOf(i) >= versionOf(current));
+        List<String> deleted = new ArrayList<>();
+        for (int i = 0; i < older.size() - retainVersions; i++) {
+            String index = older.get(i);
+            client.indices().delete(d -> d.index(index));
+            deleted.add(index);
+        }
+        return deleted;
+    }
+
+    // Spring Data wraps the client's exception, so look through the causes
+    private static boolean alreadyExists(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof ElasticsearchException es && "resource_already_exists_exception".equals(es.error().type())) {
+                return true;
+            }
+            if (t.getMessage() != null && t.getMessage().contains("resource_already_exists_exception")) return true;
+        }
+        return false;
+    }
+
+    private static int versionOf(String index) {
+        try {
+            return Integer.parseInt(index.substring(VERSION_PREFIX.length()));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    public record ReindexResult(String index, List<String> previous, List<String> deleted, IngestReport ingest) {}
+}
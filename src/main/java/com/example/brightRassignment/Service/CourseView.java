@@ -0,0 +1,50 @@
+package com.example.brightRassignment.Service;
+
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import com.example.brightRassignment.Document.CourseDocument;
+import com.example.brightRassignment.Document.CourseSummary;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Named projection of search hits: the {@code _source} fields Elasticsearch returns and the type
+ * each hit is read into. Smaller views cost less on the wire and in JSON parsing per hit.
+ */
+public record CourseView<T>(String name, Class<T> type, List<String> includes, List<String> excludes) {
+
+    /** Whole documents, as stored. */
+    public static final CourseView<CourseDocument> FULL =
+            new CourseView<>("full", CourseDocument.class, List.of(), List.of());
+
+    /** Whole documents minus the completion input and the other fields derived for indexing. */
+    public static final CourseView<CourseDocument> DETAIL =
+            new CourseView<>("detail", CourseDocument.class, List.of(),
+                    List.of("autocomplete", "ageRange", "priceBand", "ageBands"));
+
+    /** Only what a result list shows. */
+    public static final CourseView<CourseSummary> SUMMARY =
+            new CourseView<>("summary", CourseSummary.class, CourseSummary.FIELDS, List.of());
+
+    public static CourseView<?> of(String name) {
+        if (name == null || name.isBlank()) return FULL;
+        return switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "full" -> FULL;
+            case "detail" -> DETAIL;
+            case "summary" -> SUMMARY;
+            default -> throw new IllegalArgumentException("Unknown view: " + name + " (expected full, detail or summary)");
+        };
+    }
+
+    /** Adds the source filter for this view; the full view sends none. */
+    SearchRequest.Builder applySource(SearchRequest.Builder s) {
+        if (!includes.isEmpty() || !excludes.isEmpty()) {
+            s.source(src -> src.filter(f -> {
+                if (!includes.isEmpty()) f.includes(includes);
+                if (!excludes.isEmpty()) f.excludes(excludes);
+                return f;
+            }));
+        }
+        return s;
+    }
+}
@@ -0,0 +1,391 @@
+package com.example.brightRassignment.Service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Refresh;
+import co.elastic.clients.elasticsearch._types.VersionType;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.MgetResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
+import com.example.brightRassignment.Document.CourseDocument;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-course upserts, partial updates and deletes. Writes are queued per id, so repeated edits
+ * to one course collapse into one operation, and sent as one {@code _bulk} when the buffer reaches
+ * {@code courses.write.batch-size} or every {@code courses.write.flush-interval}.
+ * <p>
+ * Every write carries an external version (the caller's, or a monotonic clock), so a replayed or
+ * out-of-order write is rejected by Elasticsearch as a version conflict and reported as stale.
+ * A patch is applied to the stored course and written back only if that course is unchanged
+ * ({@code if_seq_no}/{@code if_primary_term}); when another writer got there first it is loaded again.
+ * Writes that fail to reach Elasticsearch are queued again, up to {@code courses.write.max-attempts}.
+ */
+@Service
+public class CourseWriteBuffer implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CourseWriteBuffer.class);
+    private static final String INDEX = "courses";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    public enum Operation { UPSERT, PATCH, DELETE }
+
+    public enum Outcome { INDEXED, DELETED, STALE, NOT_FOUND, FAILED }
+
+    public record WriteResult(String id, long version, Outcome outcome, String error) {}
+
+    private final ElasticsearchClient client;
+    private final ObjectMapper objectMapper;
+    private final CourseIngestService ingestService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SearchMetrics searchMetrics;
+    private final ElasticsearchGuard esGuard;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "course-write-flush");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicLong clock = new AtomicLong();
+
+    private final Object lock = new Object();
+    private Map<String, PendingWrite> pending = new LinkedHashMap<>();
+    private boolean paused;
+
+    public CourseWriteBuffer(ElasticsearchClient client, ObjectMapper objectMapper,
+                             CourseIngestService ingestService, ApplicationEventPublisher eventPublisher,
+                             SearchMetrics searchMetrics, ElasticsearchGuard esGuard,
+                             @Value("${courses.write.batch-size:500}") int batchSize,
+                             @Value("${courses.write.flush-interval:1s}") Duration flushInterval,
+                             @Value("${courses.write.max-attempts:5}") int maxAttempts) {
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.ingestService = ingestService;
+        this.eventPublisher = eventPublisher;
+        this.searchMetrics = searchMetrics;
+        this.esGuard = esGuard;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        flusher.scheduleWithFixedDelay(this::flushQuietly,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<WriteResult> upsert(String id, CourseDocument course, Long version) {
+        course.setId(id);
+        CourseIngestService.checkAgeRange(course);
+        return enqueue(id, Operation.UPSERT, course, null, version);
+    }
+
+    public CompletableFuture<WriteResult> patch(String id, Map<String, Object> fields, Long version) {
+        if (fields.containsKey("id") && !id.equals(fields.get("id"))) {
+            throw new IllegalArgumentException("A patch cannot change the course id");
+        }
+        // Bind now, so a field that cannot apply to any course is a 400 rather than a failed flush
+        CourseIngestService.checkAgeRange(bind(new CourseDocument(), fields));
+        return enqueue(id, Operation.PATCH, null, new HashMap<>(fields), version);
+    }
+
+    public CompletableFuture<WriteResult> delete(String id, Long version) {
+        return enqueue(id, Operation.DELETE, null, null, version);
+    }
+
+    private CompletableFuture<WriteResult> enqueue(String id, Operation op, CourseDocument course,
+                                                   Map<String, Object> fields, Long requestedVersion) {
+        if (id == null || id.isBlank()) throw new IllegalArgumentException("Course id is required");
+        long version = requestedVersion != null ? requestedVersion : nextVersion();
+        if (version < 0) throw new IllegalArgumentException("Version must not be negative");
+
+        CompletableFuture<WriteResult> result = new CompletableFuture<>();
+        boolean full;
+        synchronized (lock) {
+            pending.merge(id, new PendingWrite(id, op, course, fields, version, result), PendingWrite::then);
+            full = pending.size() >= batchSize;
+        }
+        if (full) flusher.execute(this::flushQuietly);
+        return result;
+    }
+
+    // Wall-clock millis, bumped when two writes land in the same millisecond so versions keep increasing
+    private long nextVersion() {
+        return clock.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Course write flush failed", e);
+        }
+    }
+
+    /**
+     * Holds writes while a reindex builds the next version, so they are applied to it after the
+     * alias swap instead of to the version being replaced. A flush already running is not waited for.
+     */
+    public void pause() {
+        synchronized (lock) {
+            paused = true;
+        }
+    }
+
+    public void resume() {
+        synchronized (lock) {
+            paused = false;
+        }
+        flusher.execute(this::flushQuietly);
+    }
+
+    /** Sends everything queued so far; runs on the flush thread only. */
+    void flush() throws IOException {
+        Map<String, PendingWrite> batch;
+        synchronized (lock) {
+            if (paused || pending.isEmpty()) return;
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+
+        try {
+            resolvePatches(batch);
+        } catch (IOException | RuntimeException e) {
+            requeue(batch.values(), e);
+            throw e;
+        }
+
+        List<BulkOperation> operations = new ArrayList<>();
+        List<PendingWrite> sent = new ArrayList<>();
+        batch.forEach((id, write) -> {
+            if (write.result.isDone()) return; // resolved while loading patches
+            if (write.op == Operation.DELETE) {
+                operations.add(BulkOperation.of(b -> b.delete(d -> d
+                        .index(INDEX).id(id).version(write.version).versionType(VersionType.External))));
+            } else {
+                CourseDocument document;
+                try {
+                    document = ingestService.prepare(write.course);
+                } catch (IllegalArgumentException e) {
+                    // A patch left the course invalid, e.g. minAge above maxAge
+                    write.result.complete(new WriteResult(id, write.version, Outcome.FAILED, e.getMessage()));
+                    return;
+                }
+                if (write.op == Operation.PATCH) {
+                    // Compare-and-set on what was read; external versions cannot be combined with it
+                    operations.add(BulkOperation.of(b -> b.index(ix -> ix
+                            .index(INDEX).id(id).ifSeqNo(write.seqNo).ifPrimaryTerm(write.primaryTerm)
+                            .document(document))));
+                } else {
+                    operations.add(BulkOperation.of(b -> b.index(ix -> ix
+                            .index(INDEX).id(id).version(write.version).versionType(VersionType.External)
+                            .document(document))));
+                }
+            }
+            sent.add(write);
+        });
+        if (operations.isEmpty()) return;
+
+        long start = System.nanoTime();
+        BulkResponse response;
+        try {
+            // wait_for: the event below must not refresh caches before the change is searchable
+            response = esGuard.callBlocking(ElasticsearchGuard.Bulkhead.INGEST,
+                    () -> client.bulk(b -> b.operations(operations).refresh(Refresh.WaitFor)));
+            searchMetrics.recordBulk(operations.size(), System.nanoTime() - start, null);
+        } catch (IOException | RuntimeException e) {
+            searchMetrics.recordBulk(operations.size(), System.nanoTime() - start, e);
+            requeue(sent, e);
+            throw e;
+        }
+
+        List<String> changed = new ArrayList<>();
+        List<BulkResponseItem> items = response.items();
+        for (int i = 0; i < items.size(); i++) {
+            BulkResponseItem item = items.get(i);
+            if (item.error() != null && (item.status() == 429 || item.status() >= 500)) {
+                // Rejected or unavailable shard: try again with the next flush
+                requeue(List.of(sent.get(i)), new IOException(item.error().reason()));
+                continue;
+            }
+            if (item.status() == 409 && sent.get(i).op == Operation.PATCH) {
+                // The course changed since it was read: apply the patch to the new one
+                requeue(List.of(sent.get(i)), new IOException("Course kept changing: " + item.error().reason()));
+                continue;
+            }
+            WriteResult result = toResult(sent.get(i), item);
+            if (result.outcome() == Outcome.INDEXED || result.outcome() == Outcome.DELETED) changed.add(result.id());
+            sent.get(i).result.complete(result);
+        }
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new CoursesWrittenEvent(changed));
+        }
+    }
+
+    /** Patches without a full document in the same batch are applied to the stored course. */
+    private void resolvePatches(Map<String, PendingWrite> batch) throws IOException {
+        List<String> ids = batch.entrySet().stream()
+                .filter(e -> e.getValue().op == Operation.PATCH)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (ids.isEmpty()) return;
+
+        MgetResponse<CourseDocument> response = esGuard.callBlocking(ElasticsearchGuard.Bulkhead.INGEST,
+                () -> client.mget(m -> m.index(INDEX).ids(ids), CourseDocument.class));
+        for (MultiGetResponseItem<CourseDocument> item : response.docs()) {
+            if (!item.isResult()) continue;
+            PendingWrite write = batch.get(item.result().id());
+            if (!item.result().found() || item.result().source() == null) {
+                write.result.complete(new WriteResult(item.result().id(), write.version, Outcome.NOT_FOUND, null));
+                continue;
+            }
+            if (item.result().version() != null && item.result().version() >= write.version) {
+                write.result.complete(new WriteResult(item.result().id(), write.version, Outcome.STALE,
+                        "A newer version is already stored"));
+                continue;
+            }
+            try {
+                write.seqNo = item.result().seqNo();
+                write.primaryTerm = item.result().primaryTerm();
+                write.course = bind(item.result().source(), write.fields);
+            } catch (IllegalArgumentException e) {
+                write.result.complete(new WriteResult(item.result().id(), write.version, Outcome.FAILED, e.getMessage()));
+            }
+        }
+        for (String id : ids) {
+            PendingWrite write = batch.get(id);
+            if (write.course == null && !write.result.isDone()) {
+                write.result.complete(new WriteResult(id, write.version, Outcome.FAILED, "Could not load course"));
+            }
+        }
+    }
+
+    /**
+     * Puts writes that never reached Elasticsearch back in the queue, behind any newer write for the
+     * same id; a write that has failed {@code maxAttempts} times fails with the last error.
+     */
+    private void requeue(Collection<PendingWrite> writes, Exception error) {
+        synchronized (lock) {
+            for (PendingWrite write : writes) {
+                if (write.result.isDone()) continue;
+                if (++write.attempts >= maxAttempts) {
+                    write.result.completeExceptionally(error);
+                    continue;
+                }
+                if (write.op == Operation.PATCH) write.course = null; // load the stored course again
+                PendingWrite newer = pending.remove(write.id);
+                pending.put(write.id, newer == null ? write : write.then(newer));
+            }
+        }
+    }
+
+    private CourseDocument bind(CourseDocument course, Map<String, Object> fields) {
+        try {
+            return objectMapper.updateValue(course, fields);
+        } catch (JsonMappingException e) {
+            throw new IllegalArgumentException("Invalid course fields: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private WriteResult toResult(PendingWrite write, BulkResponseItem item) {
+        if (item.error() == null) {
+            Outcome outcome = write.op == Operation.DELETE
+                    ? ("not_found".equals(item.result()) ? Outcome.NOT_FOUND : Outcome.DELETED)
+                    : Outcome.INDEXED;
+            return new WriteResult(item.id(), write.version, outcome, null);
+        }
+        // A newer or identical version is already stored: replays and reordered writes end here
+        if (item.status() == 409) {
+            return new WriteResult(item.id(), write.version, Outcome.STALE, item.error().reason());
+        }
+        return new WriteResult(item.id(), write.version, Outcome.FAILED, item.error().reason());
+    }
+
+    // The last flush is queued behind any flush in progress, so the two never overlap
+    @Override
+    public void destroy() throws InterruptedException {
+        flusher.execute(() -> {
+            flushQuietly();
+            synchronized (lock) {
+                pending.values().forEach(w -> w.result.completeExceptionally(
+                        new IOException("Shut down before the write reached Elasticsearch")));
+                pending.clear();
+            }
+        });
+        flusher.shutdown();
+        if (!flusher.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Course writes still flushing after {}s, giving up", SHUTDOWN_TIMEOUT_SECONDS);
+        }
+    }
+
+    /** A queued write; {@link #then} folds a later write for the same id into it. */
+    private final class PendingWrite {
+        final String id;
+        Operation op;
+        CourseDocument course;
+        Map<String, Object> fields;
+        final long version;
+        final CompletableFuture<WriteResult> result;
+        int attempts;
+        Long seqNo;
+        Long primaryTerm;
+
+        PendingWrite(String id, Operation op, CourseDocument course, Map<String, Object> fields, long version,
+                     CompletableFuture<WriteResult> result) {
+            this.id = id;
+            this.op = op;
+            this.course = course;
+            this.fields = fields;
+            this.version = version;
+            this.result = result;
+        }
+
+        PendingWrite then(PendingWrite next) {
+            if (next.version < version) {
+                next.result.complete(new WriteResult(id, next.version, Outcome.STALE,
+                        "A newer version is already queued"));
+                return this;
+            }
+            if (next.op == Operation.PATCH && op == Operation.DELETE) {
+                next.result.complete(new WriteResult(id, next.version, Outcome.NOT_FOUND, "Course is being deleted"));
+                return this;
+            }
+            PendingWrite merged = next;
+            if (next.op == Operation.PATCH) {
+                if (op == Operation.UPSERT) {
+                    // Patch on top of a queued document: stays a full upsert with the fields applied
+                    merged = new PendingWrite(id, Operation.UPSERT, bind(course, next.fields), null, next.version, next.result);
+                } else {
+                    Map<String, Object> fields = new HashMap<>(this.fields);
+                    fields.putAll(next.fields);
+                    merged = new PendingWrite(id, Operation.PATCH, null, fields, next.version, next.result);
+                }
+            }
+            // Callers of the superseded write learn the outcome of the write that replaced it
+            merged.result.whenComplete((r, e) -> {
+                if (e != null) result.completeExceptionally(e);
+                else result.complete(r);
+            });
+            return merged;
+        }
+    }
+}
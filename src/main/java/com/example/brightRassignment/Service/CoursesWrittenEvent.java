@@ -0,0 +1,11 @@
+package com.example.brightRassignment.Service;
+
+import java.util.List;
+
+/**
+ * Published after single-course writes (upserts, patches, deletes) are searchable. Unlike
+ * {@link CourseIndexChangedEvent} the rest of the index is unchanged, so in-process views may
+ * refresh lazily instead of rebuilding at once.
+ */
+public record CoursesWrittenEvent(List<String> ids) {
+}
@@ -0,0 +1,9 @@
+package com.example.brightRassignment.Service;
+
+/** The point-in-time behind a cursor was closed or outlived its keep-alive; paging must start again. */
+public class CursorExpiredException extends RuntimeException {
+
+    public CursorExpiredException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
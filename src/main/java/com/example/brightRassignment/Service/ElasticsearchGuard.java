@@ -0,0 +1,141 @@
+package com.example.brightRassignment.Service;
+
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load shedding in front of Elasticsearch. Suggest, search and ingest each get their own adaptive
+ * concurrency limit, so a typeahead burst cannot take the slots searches need, and all three share
+ * one circuit breaker that stops sending requests to a cluster that keeps failing.
+ * <p>
+ * Search and suggest calls are refused immediately with {@link OverloadedException} when over the
+ * limit or while the breaker is open; callers fall back to an in-memory answer where one exists.
+ * Ingest waits for a slot, and for an open breaker to let it through, instead, since its writes
+ * must not be dropped.
+ */
+@Component
+public class ElasticsearchGuard {
+
+    public enum Bulkhead { SUGGEST, SEARCH, INGEST }
+
+    private static final long BREAKER_POLL_MILLIS = 50;
+
+    private final Map<Bulkhead, AdaptiveLimiter> limiters = new EnumMap<>(Bulkhead.class);
+    private final Map<Bulkhead, Counter> rejections = new EnumMap<>(Bulkhead.class);
+    private final CircuitBreaker breaker;
+
+    public ElasticsearchGuard(MeterRegistry registry,
+                              @Value("${search.limiter.min:2}") int minLimit,
+                              @Value("${search.limiter.suggest.max:20}") int suggestMax,
+                              @Value("${search.limiter.suggest.latency:100ms}") Duration suggestLatency,
+                              @Value("${search.limiter.search.max:50}") int searchMax,
+                              @Value("${search.limiter.search.latency:500ms}") Duration searchLatency,
+                              @Value("${search.limiter.ingest.max:4}") int ingestMax,
+                              @Value("${search.limiter.ingest.latency:5s}") Duration ingestLatency,
+                              @Value("${search.breaker.failure-threshold:5}") int failureThreshold,
+                              @Value("${search.breaker.open-duration:10s}") Duration openDuration) {
+        limiters.put(Bulkhead.SUGGEST, new AdaptiveLimiter(minLimit, suggestMax, suggestLatency.toNanos()));
+        limiters.put(Bulkhead.SEARCH, new AdaptiveLimiter(minLimit, searchMax, searchLatency.toNanos()));
+        limiters.put(Bulkhead.INGEST, new AdaptiveLimiter(Math.min(minLimit, ingestMax), ingestMax, ingestLatency.toNanos()));
+        this.breaker = new CircuitBreaker(failureThreshold, openDuration.toNanos());
+
+        limiters.forEach((bulkhead, limiter) -> {
+            String tag = bulkhead.name().toLowerCase();
+            Gauge.builder("search.limiter.limit", limiter, AdaptiveLimiter::limit).tag("bulkhead", tag).register(registry);
+            Gauge.builder("search.limiter.in-flight", limiter, AdaptiveLimiter::inFlight).tag("bulkhead", tag).register(registry);
+            rejections.put(bulkhead, Counter.builder("search.limiter.rejected").tag("bulkhead", tag).register(registry));
+        });
+        // 0 closed, 1 half-open, 2 open
+        Gauge.builder("search.breaker.state", breaker, b -> switch (b.state()) {
+            case CLOSED -> 0;
+            case HALF_OPEN -> 1;
+            case OPEN -> 2;
+        }).register(registry);
+    }
+
+    /** Runs the call if its bulkhead has room and the breaker is closed; otherwise throws {@link OverloadedException}. */
+    public <T> T call(Bulkhead bulkhead, SearchMetrics.Call<T> call) throws IOException {
+        AdaptiveLimiter limiter = limiters.get(bulkhead);
+        if (!limiter.tryAcquire()) {
+            rejections.get(bulkhead).increment();
+            throw new OverloadedException("Too many concurrent " + bulkhead.name().toLowerCase() + " requests");
+        }
+        // Asked second, so a half-open trial is only handed to a call that will actually run
+        if (!breaker.allowRequest()) {
+            limiter.cancel();
+            rejections.get(bulkhead).increment();
+            throw new OverloadedException("Elasticsearch is unavailable");
+        }
+        return run(limiter, call);
+    }
+
+    /**
+     * Waits for a slot in the bulkhead and for the breaker to allow a request, then runs the call.
+     * While the breaker is open nothing is sent; once it half-opens, one waiting call is the trial.
+     */
+    public <T> T callBlocking(Bulkhead bulkhead, SearchMetrics.Call<T> call) throws IOException {
+        AdaptiveLimiter limiter = limiters.get(bulkhead);
+        try {
+            limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for an Elasticsearch slot", e);
+        }
+        try {
+            while (!breaker.allowRequest()) {
+                Thread.sleep(BREAKER_POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            limiter.cancel();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for Elasticsearch to recover", e);
+        }
+        return run(limiter, call);
+    }
+
+    private <T> T run(AdaptiveLimiter limiter, SearchMetrics.Call<T> call) throws IOException {
+        long start = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            T result = call.call();
+            breaker.onSuccess();
+            return result;
+        } catch (IOException | RuntimeException e) {
+            overloaded = isOverload(e);
+            if (overloaded) breaker.onFailure();
+            else breaker.onSuccess(); // the cluster answered; the request itself was wrong
+            throw e;
+        } finally {
+            limiter.release(System.nanoTime() - start, overloaded);
+        }
+    }
+
+    public CircuitBreaker.State breakerState() {
+        return breaker.state();
+    }
+
+    // Rejections, 5xx and transport failures say the cluster is struggling; 4xx and local errors do not
+    private static boolean isOverload(Exception e) {
+        if (e instanceof ElasticsearchException ee) {
+            return ee.status() == 429 || ee.status() >= 500;
+        }
+        if (e instanceof BulkFailureException bulk) {
+            return bulk.getFailedDocuments().values().stream()
+                    .anyMatch(d -> d.status() != null && (d.status() == 429 || d.status() >= 500));
+        }
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof IOException) return true; // also when wrapped by Spring Data
+        }
+        return false;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.brightRassignment.Service;
+
+import com.example.brightRassignment.Service.CourseIngestService.IngestReport;
+
+/** Some courses failed to index into a new version, so it was deleted instead of going live. */
+public class IncompleteReindexException extends RuntimeException {
+
+    private final String index;
+    private final IngestReport report;
+
+    public IncompleteReindexException(String index, IngestReport report) {
+        super(report.failed() + " of " + report.read() + " courses failed to index into " + index
+                + ", keeping the current version");
+        this.index = index;
+        this.report = report;
+    }
+
+    public String index() {
+        return index;
+    }
+
+    public IngestReport report() {
+        return report;
+    }
+}
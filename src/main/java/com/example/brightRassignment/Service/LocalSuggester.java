@@ -0,0 +1,188 @@
+package com.example.brightRassignment.Service;
+
+import com.example.brightRassignment.Document.CourseDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory replacement for the ES completion suggester, enabled with {@code search.suggest.engine=local}.
+ * Inputs are normalized the way the completion field's simple analyzer does (lowercase, non-letters as
+ * separators), kept sorted in parallel arrays and looked up by binary search on the prefix.
+ */
+@Component
+public class LocalSuggester {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalSuggester.class);
+
+    private final CourseCatalogReader catalogReader;
+    private final boolean enabled;
+    private final RebuildScheduler rebuilds;
+
+    private volatile Index index;
+
+    public LocalSuggester(CourseCatalogReader catalogReader,
+                          @Value("${search.suggest.engine:elasticsearch}") String engine,
+                          @Value("${search.suggest.write-rebuild-interval:30s}") Duration writeRebuildInterval) {
+        this.catalogReader = catalogReader;
+        this.enabled = "local".equalsIgnoreCase(engine);
+        this.rebuilds = new RebuildScheduler("local-suggester-rebuild", writeRebuildInterval, log, this::rebuild);
+    }
+
+    /** True once the engine is selected and the first build has completed. */
+    public boolean isActive() {
+        return enabled && index != null;
+    }
+
+    public List<String> suggest(String prefix, int size) {
+        Index current = index;
+        return current == null ? List.of() : current.suggest(normalize(prefix), size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (enabled) rebuilds.now();
+    }
+
+    @EventListener
+    public void onIndexChanged(CourseIndexChangedEvent event) {
+        if (enabled) rebuilds.now();
+    }
+
+    @EventListener
+    public void onCoursesWritten(CoursesWrittenEvent event) {
+        if (enabled) rebuilds.afterWrites();
+    }
+
+    void rebuild() throws Exception {
+        Map<String, Integer> weights = new HashMap<>();
+        catalogReader.forEach(CourseDocument.class, List.of("title", "autocomplete"), c -> {
+            // Same inputs as the completion field; fall back to the title for documents indexed without one
+            String[] inputs = c.getAutocomplete() != null && c.getAutocomplete().getInput() != null
+                    ? c.getAutocomplete().getInput()
+                    : new String[]{c.getTitle()};
+            int weight = c.getAutocomplete() != null && c.getAutocomplete().getWeight() != null
+                    ? c.getAutocomplete().getWeight() : 1;
+            for (String input : inputs) {
+                if (input != null && !input.isBlank()) weights.merge(input, weight, Math::max);
+            }
+        });
+        index = Index.build(weights);
+        log.info("Local suggester built with {} distinct inputs", weights.size());
+    }
+
+    static String normalize(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean separator = false;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (Character.isLetter(ch)) {
+                if (separator && sb.length() > 0) sb.append(' ');
+                sb.append(Character.toLowerCase(ch));
+                separator = false;
+            } else {
+                separator = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Immutable lookup structure: normalized keys sorted ascending, with the original text and weight alongside. */
+    static final class Index {
+        private final String[] keys;
+        private final String[] texts;
+        private final int[] weights;
+        private final boolean uniformWeights;
+
+        private Index(String[] keys, String[] texts, int[] weights, boolean uniformWeights) {
+            this.keys = keys;
+            this.texts = texts;
+            this.weights = weights;
+            this.uniformWeights = uniformWeights;
+        }
+
+        static Index build(Map<String, Integer> textWeights) {
+            int n = textWeights.size();
+            String[] texts = textWeights.keySet().toArray(new String[0]);
+            String[] normalized = new String[n];
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                normalized[i] = normalize(texts[i]);
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> {
+                int cmp = normalized[a].compareTo(normalized[b]);
+                return cmp != 0 ? cmp : texts[a].compareTo(texts[b]);
+            });
+
+            String[] sortedKeys = new String[n];
+            String[] sortedTexts = new String[n];
+            int[] sortedWeights = new int[n];
+            boolean uniform = true;
+            for (int i = 0; i < n; i++) {
+                int src = order[i];
+                sortedKeys[i] = normalized[src];
+                sortedTexts[i] = texts[src];
+                sortedWeights[i] = textWeights.get(texts[src]);
+                if (sortedWeights[i] != sortedWeights[0]) uniform = false;
+            }
+            return new Index(sortedKeys, sortedTexts, sortedWeights, uniform);
+        }
+
+        List<String> suggest(String prefix, int size) {
+            if (size <= 0) return List.of();
+            List<String> result = new ArrayList<>(size);
+            int from = lowerBound(prefix);
+
+            // Equal weights: the first matches in key order are already the top-k
+            if (uniformWeights) {
+                for (int i = from; i < keys.length && result.size() < size && keys[i].startsWith(prefix); i++) {
+                    result.add(texts[i]);
+                }
+                return result;
+            }
+
+            // Weighted inputs: keep the best `size` entries of the prefix range, highest weight first
+            int[] best = new int[size];
+            int count = 0;
+            for (int i = from; i < keys.length && keys[i].startsWith(prefix); i++) {
+                if (count < size) {
+                    best[count++] = i;
+                } else if (weights[i] > weights[best[count - 1]]) {
+                    best[count - 1] = i;
+                } else {
+                    continue;
+                }
+                for (int j = count - 1; j > 0 && weights[best[j]] > weights[best[j - 1]]; j--) {
+                    int tmp = best[j];
+                    best[j] = best[j - 1];
+                    best[j - 1] = tmp;
+                }
+            }
+            for (int i = 0; i < count; i++) result.add(texts[best[i]]);
+            return result;
+        }
+
+        private int lowerBound(String prefix) {
+            int lo = 0;
+            int hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(prefix) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
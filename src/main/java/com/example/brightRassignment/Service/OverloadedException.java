@@ -0,0 +1,10 @@
+package com.example.brightRassignment.Service;
+
+/** An Elasticsearch call was refused before it was sent: its bulkhead was full or the breaker open. */
+public class OverloadedException extends RuntimeException {
+
+    public OverloadedException(String message) {
+        // Thrown on the fast path under load: no stack trace to fill in
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.brightRassignment.Service;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a full rebuild of an in-process catalog view on its own thread. Requests that arrive
+ * while a run is queued collapse into it; requests that arrive during a run queue one more.
+ * Rebuilds caused by single-course writes start no sooner than {@code writeInterval} after the
+ * previous run, so a trickle of writes does not turn into back-to-back index scans.
+ */
+final class RebuildScheduler {
+
+    @FunctionalInterface
+    interface Rebuild {
+        void run() throws Exception;
+    }
+
+    private final Rebuild rebuild;
+    private final Logger log;
+    private final long writeIntervalNanos;
+    private final ScheduledExecutorService executor;
+
+    private ScheduledFuture<?> queued;                  // guarded by this
+    private volatile long lastStart = System.nanoTime() - Long.MAX_VALUE / 2;
+
+    RebuildScheduler(String threadName, Duration writeInterval, Logger log, Rebuild rebuild) {
+        this.rebuild = rebuild;
+        this.log = log;
+        this.writeIntervalNanos = writeInterval.toNanos();
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, threadName);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** The index was loaded or replaced: rebuild as soon as possible. */
+    void now() {
+        schedule(0);
+    }
+
+    /** Some courses were written: rebuild once the write interval since the last run has passed. */
+    void afterWrites() {
+        schedule(Math.max(0, lastStart + writeIntervalNanos - System.nanoTime()));
+    }
+
+    private synchronized void schedule(long delayNanos) {
+        if (queued != null) {
+            // Already queued soon enough, or starting right now
+            if (queued.getDelay(TimeUnit.NANOSECONDS) <= delayNanos || !queued.cancel(false)) return;
+        }
+        queued = executor.schedule(this::run, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void run() {
+        synchronized (this) {
+            queued = null; // later requests must queue another run: this one may already have read past them
+        }
+        lastStart = System.nanoTime();
+        try {
+            rebuild.run();
+        } catch (Exception e) {
+            log.warn("Rebuild failed, keeping the previous version", e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.brightRassignment.Service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, TTL-evicting cache of serialized search and suggest responses.
+ * Keys carry the index generation, so a load that started before an index change
+ * can never be served after it. Concurrent misses on one key share a single load.
+ */
+@Component
+public class SearchCache {
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws IOException;
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Cache<List<Object>, byte[]> cache;
+    private final AtomicLong generation = new AtomicLong();
+    private final SingleFlight<List<Object>, Object> loads;
+
+    public SearchCache(ObjectMapper objectMapper, MeterRegistry registry,
+                       @Value("${search.cache.max-entries:10000}") long maxEntries,
+                       @Value("${search.cache.ttl:60s}") Duration ttl,
+                       @Value("${search.cache.coalesce-wait:${search.limiter.search.latency:500ms}}") Duration coalesceWait) {
+        this.objectMapper = objectMapper;
+        this.loads = new SingleFlight<>(coalesceWait);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "search");
+        FunctionCounter.builder("search.cache.coalesced", loads, SingleFlight::shared).register(registry);
+    }
+
+    /**
+     * Builds a cache key from the search mode and its already-normalized parameters.
+     * Blank strings are folded into null so "" and a missing parameter share an entry.
+     */
+    public List<Object> key(String mode, Object... params) {
+        List<Object> key = new ArrayList<>(params.length + 2);
+        key.add(generation.get());
+        key.add(mode);
+        for (Object p : params) {
+            key.add(p instanceof String str ? (str.isBlank() ? null : str.trim()) : p);
+        }
+        return key;
+    }
+
+    public <T> T get(List<Object> key, TypeReference<T> type, Loader<T> loader) throws IOException {
+        return get(key, objectMapper.getTypeFactory().constructType(type), loader);
+    }
+
+    /**
+     * Same as above for types only known at runtime, such as a result over a projected view.
+     * Callers that miss while another load of the key is running get that load's result object, or an
+     * {@link OverloadedException} if it takes longer than {@code search.cache.coalesce-wait}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(List<Object> key, JavaType type, Loader<T> loader) throws IOException {
+        byte[] cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return objectMapper.readValue(cached, type);
+        }
+        return (T) loads.run(key, () -> {
+            // The previous load of this key may have finished between the miss above and winning the call
+            byte[] stored = cache.getIfPresent(key);
+            if (stored != null) {
+                return objectMapper.readValue(stored, type);
+            }
+            T value = loader.load();
+            cache.put(key, objectMapper.writeValueAsBytes(value));
+            return value;
+        });
+    }
+
+    @EventListener
+    public void onIndexChanged(CourseIndexChangedEvent event) {
+        invalidateAll();
+    }
+
+    // A few courses changed: new keys stop matching old entries, which age out instead of being dropped at once
+    @EventListener
+    public void onCoursesWritten(CoursesWrittenEvent event) {
+        generation.incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("coalesced", loads.shared());
+        result.put("generation", generation.get());
+        return result;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.brightRassignment.Service;
+
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot-path meters, tagged by search mode (fuzzy, filtered, cursor, faceted, suggest, bulk):
+ * <ul>
+ *   <li>{@code search.requests} – end-to-end service time, including cache hits</li>
+ *   <li>{@code search.es.client} – Elasticsearch round trip as seen by the client</li>
+ *   <li>{@code search.es.took} – time Elasticsearch reports spending on the query</li>
+ *   <li>{@code search.es.overhead} – client time minus took: network, queueing, (de)serialization</li>
+ *   <li>{@code search.results} – hits returned per request</li>
+ *   <li>{@code search.errors} – failures by exception type</li>
+ * </ul>
+ */
+@Component
+public class SearchMetrics {
+
+    @FunctionalInterface
+    public interface Call<T> {
+        T call() throws IOException;
+    }
+
+    private record ModeMeters(Timer requests, Timer client, Timer took, Timer overhead, DistributionSummary results) {}
+
+    private final MeterRegistry registry;
+    private final Map<String, ModeMeters> meters = new ConcurrentHashMap<>();
+
+    public SearchMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T timeRequest(String mode, Call<T> call) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return call.call();
+        } catch (IOException | RuntimeException e) {
+            recordError(mode, e);
+            throw e;
+        } finally {
+            meters(mode).requests().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public <T> SearchResponse<T> timeSearch(String mode, Call<SearchResponse<T>> call) throws IOException {
+        ModeMeters m = meters(mode);
+        long start = System.nanoTime();
+        SearchResponse<T> response = call.call();
+        long clientNanos = System.nanoTime() - start;
+
+        long tookNanos = TimeUnit.MILLISECONDS.toNanos(response.took());
+        m.client().record(clientNanos, TimeUnit.NANOSECONDS);
+        m.took().record(tookNanos, TimeUnit.NANOSECONDS);
+        m.overhead().record(Math.max(0, clientNanos - tookNanos), TimeUnit.NANOSECONDS);
+        m.results().record(response.hits().hits().size());
+        return response;
+    }
+
+    public void recordResults(String mode, int count) {
+        meters(mode).results().record(count);
+    }
+
+    public void recordBulk(int documents, long nanos, Exception error) {
+        ModeMeters m = meters("bulk");
+        m.client().record(nanos, TimeUnit.NANOSECONDS);
+        m.results().record(documents);
+        if (error != null) recordError("bulk", error);
+    }
+
+    private void recordError(String mode, Exception e) {
+        Counter.builder("search.errors")
+                .tag("mode", mode)
+                .tag("exception", e.getClass().getSimpleName())
+                .register(registry)
+                .increment();
+    }
+
+    private ModeMeters meters(String mode) {
+        return meters.computeIfAbsent(mode, m -> new ModeMeters(
+                timer("search.requests", m),
+                timer("search.es.client", m),
+                timer("search.es.took", m),
+                timer("search.es.overhead", m),
+                DistributionSummary.builder("search.results")
+                        .tag("mode", m)
+                        .publishPercentileHistogram()
+                        .register(registry)
+        ));
+    }
+
+    private Timer timer(String name, String mode) {
+        return Timer.builder(name)
+                .tag("mode", mode)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -1,19 +1,39 @@
 package com.example.brightRassignment.Service;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.CalendarInterval;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.RangeRelation;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.json.JsonData;
+import co.elastic.clients.util.NamedValue;
 import com.example.brightRassignment.Document.Autocomplete;
 import com.example.brightRassignment.Document.CourseDocument;
 import com.example.brightRassignment.Repository.CourseRepository;
+import com.example.brightRassignment.Service.ElasticsearchGuard.Bulkhead;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.elasticsearch.core.suggest.Completion;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.InputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -24,44 +44,46 @@ import java.util.stream.StreamSupport;
 public class SearchService {
 
     private static final String INDEX = "courses";
+    public static final String CURSOR_START = "*";
+    private static final String PIT_KEEP_ALIVE = "1m";
+    private static final int SUGGEST_SIZE = 5;
+    private static final int EXPORT_BATCH_SIZE = 1000;
+    private static final List<String> FACETS = List.of("category", "type", "gradeRange", "price", "minAge", "maxAge", "ageBands", "nextSessionDate");
+    private static final String FACET_VALUES = "values";
+    private static final int TERMS_FACET_SIZE = 50;
+    private static final double AGE_FACET_INTERVAL = 3;
+
+    private static final TypeReference<List<String>> STRING_LIST = new TypeReference<>() {};
 
     private final CourseRepository courseRepository;
     private final ObjectMapper objectMapper;
+    private final SearchCache searchCache;
+    private final LocalSuggester localSuggester;
+    private final SearchMetrics searchMetrics;
+    private final CatalogSnapshot catalogSnapshot;
+    private final ElasticsearchGuard esGuard;
+    private final int fuzzyMinHits;
 
     @Autowired
     private ElasticsearchClient client;
 
-    public SearchService(CourseRepository courseRepository, ObjectMapper objectMapper) {
+    public SearchService(CourseRepository courseRepository, ObjectMapper objectMapper,
+                         SearchCache searchCache, LocalSuggester localSuggester,
+                         SearchMetrics searchMetrics, CatalogSnapshot catalogSnapshot,
+                         ElasticsearchGuard esGuard,
+                         @Value("${search.fuzzy.min-hits:3}") int fuzzyMinHits) {
         this.courseRepository = courseRepository;
         this.objectMapper = objectMapper;
-        bulkIndexSampleData();
-    }
-
-    public void bulkIndexSampleData() {
-        try (InputStream is = getClass().getResourceAsStream("/sample-courses.json")) {
-            if (is == null) {
-                System.out.println("sample-courses.json not found!");
-                return;
-            }
-
-            List<CourseDocument> courses = objectMapper.readValue(is, new TypeReference<>() {});
-            courses.forEach(c -> {
-    if (c.getNextSessionDate() == null) c.setNextSessionDate(Instant.now());
-
-    // ✅ Proper ES completion object
-    c.setAutocomplete(new Completion(new String[]{c.getTitle()}));
-});
-
-
-            courseRepository.saveAll(courses);
-            System.out.println("Indexed " + courses.size() + " courses with autocomplete.");
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        this.searchCache = searchCache;
+        this.localSuggester = localSuggester;
+        this.searchMetrics = searchMetrics;
+        this.catalogSnapshot = catalogSnapshot;
+        this.esGuard = esGuard;
+        this.fuzzyMinHits = fuzzyMinHits;
     }
 
     // ================= Repository-based search =================
-    public RepoSearchResult searchCoursesRepo(
+    public RepoSearchResult<CourseDocument> searchCoursesRepo(
             String q,
             Integer minAge,
             Integer maxAge,
@@ -74,6 +96,11 @@ public class SearchService {
             int page,
             int size
     ) {
+        // Columnar snapshot answers without scanning document objects once it has been built
+        if (catalogSnapshot.isLoaded()) {
+            return catalogSnapshot.search(q, minAge, maxAge, category, type, minPrice, maxPrice, startDate, sort, page, size);
+        }
+
         List<CourseDocument> filtered = StreamSupport.stream(courseRepository.findAll().spliterator(), false)
                 .filter(c -> q == null || q.isBlank() || c.getTitle().toLowerCase().contains(q.toLowerCase()) || c.getDescription().toLowerCase().contains(q.toLowerCase()))
                 .filter(c -> minAge == null || c.getMinAge() >= minAge)
@@ -91,55 +118,62 @@ public class SearchService {
         int to = Math.min(from + size, total);
         List<CourseDocument> paginated = from >= total ? List.of() : filtered.subList(from, to);
 
-        return new RepoSearchResult(total, paginated);
+        return new RepoSearchResult<>(total, paginated);
     }
      
     // ================= Elasticsearch fuzzy search =================
-public List<CourseDocument> searchCoursesFuzzy(String q, Integer minAge, Integer maxAge,
-                                               String category, String type,
-                                               Double minPrice, Double maxPrice,
-                                               Instant startDate, String sort,
-                                               int page, int size) throws IOException {
+    public List<CourseDocument> searchCoursesFuzzy(String q, Integer minAge, Integer maxAge,
+                                                   String category, String type,
+                                                   Double minPrice, Double maxPrice,
+                                                   Instant startDate, String sort,
+                                                   int page, int size) throws IOException {
+        return searchCoursesFuzzy(q, minAge, maxAge, category, type, minPrice, maxPrice, startDate, sort, page, size, CourseView.FULL);
+    }
+
+    public <T> List<T> searchCoursesFuzzy(String q, Integer minAge, Integer maxAge,
+                                          String category, String type,
+                                          Double minPrice, Double maxPrice,
+                                          Instant startDate, String sort,
+                                          int page, int size, CourseView<T> view) throws IOException {
+        List<Object> key = searchCache.key("fuzzy", view.name(), normalizeText(q), minAge, maxAge, category, type,
+                minPrice, maxPrice, startDate, sort, page, size);
+        JavaType resultType = objectMapper.getTypeFactory().constructCollectionType(List.class, view.type());
+        return searchMetrics.timeRequest("fuzzy", () -> {
+            try {
+                return searchCache.get(key, resultType, () -> esGuard.call(Bulkhead.SEARCH, () -> fetchCoursesFuzzy(q, minAge, maxAge,
+                        category, type, minPrice, maxPrice, startDate, sort, page, size, view)));
+            } catch (OverloadedException e) {
+                return snapshotFallback(e, q, minAge, maxAge, category, type, minPrice, maxPrice, startDate, sort, page, size, view).getCourses();
+            }
+        });
+    }
 
-    final String queryText = (q == null || q.isBlank()) ? "" : q; // avoid null issues
+private <T> List<T> fetchCoursesFuzzy(String q, Integer minAge, Integer maxAge,
+                                      String category, String type,
+                                      Double minPrice, Double maxPrice,
+                                      Instant startDate, String sort,
+                                      int page, int size, CourseView<T> view) throws IOException {
 
     int from = page * size;
 
-    SearchResponse<CourseDocument> response = client.search(s -> s
+    SearchResponse<T> response = withFuzzyFallback(q, fuzzy -> searchMetrics.timeSearch("fuzzy", () -> client.search(s -> view.applySource(s)
                     .index(INDEX)
                     .from(from)
                     .size(size)
                     .query(qb -> qb
                             .bool(b -> {
-                                // Full-text fuzzy search on title
-                                b.must(m -> m
-                                        .match(ma -> ma
-                                                .field("title")
-                                                .query(queryText)
-                                                .fuzziness("AUTO") // <-- actual fuzziness
-                                        )
-                                );
+                                // Relevance search over title and description
+                                applyKeyword(b, q, fuzzy);
 
                                 // Filters
-                                if (minAge != null) b.filter(f -> f.range(r -> r.field("minAge").gte(co.elastic.clients.json.JsonData.of(minAge))));
-                                if (maxAge != null) b.filter(f -> f.range(r -> r.field("maxAge").lte(co.elastic.clients.json.JsonData.of(maxAge))));
-                                if (category != null && !category.isBlank()) b.filter(f -> f.term(t -> t.field("category").value(category)));
-                                if (type != null && !type.isBlank()) b.filter(f -> f.term(t -> t.field("type").value(type)));
-                                if (minPrice != null) b.filter(f -> f.range(r -> r.field("price").gte(co.elastic.clients.json.JsonData.of(minPrice))));
-                                if (maxPrice != null) b.filter(f -> f.range(r -> r.field("price").lte(co.elastic.clients.json.JsonData.of(maxPrice))));
-                                if (startDate != null) b.filter(f -> f.range(r -> r.field("nextSessionDate").gte(co.elastic.clients.json.JsonData.of(startDate.toString()))));
-                                return b;
+                                return applyFilters(b, minAge, maxAge, category, type, minPrice, maxPrice, startDate);
                             })
                     )
-                    .sort(sb -> {
-                        if ("priceAsc".equalsIgnoreCase(sort)) return sb.field(f -> f.field("price").order(co.elastic.clients.elasticsearch._types.SortOrder.Asc));
-                        if ("priceDesc".equalsIgnoreCase(sort)) return sb.field(f -> f.field("price").order(co.elastic.clients.elasticsearch._types.SortOrder.Desc));
-                        return sb.field(f -> f.field("nextSessionDate").order(co.elastic.clients.elasticsearch._types.SortOrder.Asc));
-                    }),
-            CourseDocument.class
-    );
+                    .sort(sb -> applySort(sb, sort)),
+            view.type()
+    )));
 
-    List<CourseDocument> hits = response.hits().hits().stream()
+    List<T> hits = response.hits().hits().stream()
             .map(Hit::source)
             .filter(Objects::nonNull)
             .collect(Collectors.toList());
@@ -147,26 +181,572 @@ public List<CourseDocument> searchCoursesFuzzy(String q, Integer minAge, Integer
     return hits;
 }
 
-    private Comparator<CourseDocument> getComparator(String sort) {
+    // ================= Elasticsearch filter-only search =================
+    public RepoSearchResult<CourseDocument> searchCoursesFiltered(Integer minAge, Integer maxAge,
+                                                                  String category, String type,
+                                                                  Double minPrice, Double maxPrice,
+                                                                  Instant startDate, String sort,
+                                                                  int page, int size) throws IOException {
+        return searchCoursesFiltered(minAge, maxAge, category, type, minPrice, maxPrice, startDate, sort, page, size, CourseView.FULL);
+    }
+
+    public <T> RepoSearchResult<T> searchCoursesFiltered(Integer minAge, Integer maxAge,
+                                                         String category, String type,
+                                                         Double minPrice, Double maxPrice,
+                                                         Instant startDate, String sort,
+                                                         int page, int size, CourseView<T> view) throws IOException {
+        List<Object> key = searchCache.key("filtered", view.name(), minAge, maxAge, category, type,
+                minPrice, maxPrice, startDate, sort, page, size);
+        JavaType resultType = objectMapper.getTypeFactory().constructParametricType(RepoSearchResult.class, view.type());
+        return searchMetrics.timeRequest("filtered", () -> {
+            try {
+                return searchCache.get(key, resultType, () -> esGuard.call(Bulkhead.SEARCH, () -> fetchCoursesFiltered(minAge, maxAge,
+                        category, type, minPrice, maxPrice, startDate, sort, page, size, view)));
+            } catch (OverloadedException e) {
+                return snapshotFallback(e, null, minAge, maxAge, category, type, minPrice, maxPrice, startDate, sort, page, size, view);
+            }
+        });
+    }
+
+    private <T> RepoSearchResult<T> fetchCoursesFiltered(Integer minAge, Integer maxAge,
+                                                         String category, String type,
+                                                         Double minPrice, Double maxPrice,
+                                                         Instant startDate, String sort,
+                                                         int page, int size, CourseView<T> view) throws IOException {
+        int from = page * size;
+
+        // No keyword: every clause runs in filter context, so ES skips scoring and can cache the filters
+        SearchResponse<T> response = searchMetrics.timeSearch("filtered", () -> client.search(s -> view.applySource(s)
+                        .index(INDEX)
+                        .from(from)
+                        .size(size)
+                        .trackTotalHits(t -> t.enabled(true))
+                        .query(qb -> qb
+                                .bool(b -> applyFilters(b, minAge, maxAge, category, type, minPrice, maxPrice, startDate))
+                        )
+                        .sort(sb -> applySort(sb, sort)),
+                view.type()
+        ));
+
+        List<T> hits = response.hits().hits().stream()
+                .map(Hit::source)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        long total = response.hits().total() != null ? response.hits().total().value() : hits.size();
+        return new RepoSearchResult<>((int) total, hits);
+    }
+
+    // ================= Cursor search (point-in-time + search_after) =================
+    public CursorSearchResult<CourseDocument> searchCoursesCursor(String q, Integer minAge, Integer maxAge,
+                                                                  String category, String type,
+                                                                  Double minPrice, Double maxPrice,
+                                                                  Instant startDate, String sort,
+                                                                  int size, String cursor) throws IOException {
+        return searchCoursesCursor(q, minAge, maxAge, category, type, minPrice, maxPrice, startDate, sort, size, cursor, CourseView.FULL);
+    }
+
+    public <T> CursorSearchResult<T> searchCoursesCursor(String q, Integer minAge, Integer maxAge,
+                                                         String category, String type,
+                                                         Double minPrice, Double maxPrice,
+                                                         Instant startDate, String sort,
+                                                         int size, String cursor, CourseView<T> view) throws IOException {
+        if (size < 1) throw new IllegalArgumentException("Cursor page size must be at least 1");
+        return searchMetrics.timeRequest("cursor", () -> esGuard.call(Bulkhead.SEARCH, () -> fetchCoursesCursor(q, minAge, maxAge,
+                category, type, minPrice, maxPrice, startDate, sort, size, cursor, view)));
+    }
+
+    private <T> CursorSearchResult<T> fetchCoursesCursor(String q, Integer minAge, Integer maxAge,
+                                                         String category, String type,
+                                                         Double minPrice, Double maxPrice,
+                                                         Instant startDate, String sort,
+                                                         int size, String cursor, CourseView<T> view) throws IOException {
+        boolean firstPage = CURSOR_START.equals(cursor);
+        CursorToken token = firstPage ? new CursorToken(openPointInTime(), null, false) : decodeCursor(cursor);
+
+        // The first page decides whether fuzzy matching is needed; later pages repeat that choice from the token
+        boolean fuzzy = token.fuzzy();
+        SearchResponse<T> response;
+        try {
+            response = cursorPage(token, fuzzy, q, minAge, maxAge,
+                    category, type, minPrice, maxPrice, startDate, sort, size, view);
+        } catch (ElasticsearchException e) {
+            if (firstPage) throw e;
+            // A PIT past its keep-alive is 404; a cursor that decodes but names no valid PIT or sort values is 400
+            if (e.status() == 404) throw new CursorExpiredException("Cursor expired, start again with cursor=*", e);
+            if (e.status() == 400) throw new IllegalArgumentException("Invalid cursor", e);
+            throw e;
+        }
+        if (firstPage && isScarce(q, response)) {
+            fuzzy = true;
+            response = cursorPage(token, true, q, minAge, maxAge,
+                    category, type, minPrice, maxPrice, startDate, sort, size, view);
+        }
+
+        List<Hit<T>> rawHits = response.hits().hits();
+        List<T> hits = rawHits.stream()
+                .map(Hit::source)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        Long total = response.hits().total() != null ? response.hits().total().value() : null;
+        String pitId = response.pitId() != null ? response.pitId() : token.pitId();
+
+        String nextCursor = null;
+        if (rawHits.size() < size) {
+            // Last page: release the point-in-time instead of waiting for keep-alive to expire
+            client.closePointInTime(c -> c.id(pitId));
+        } else {
+            List<Object> searchAfter = rawHits.get(rawHits.size() - 1).sort().stream()
+                    .map(v -> v.isNull() ? null : v._get())
+                    .collect(Collectors.toList());
+            nextCursor = encodeCursor(new CursorToken(pitId, searchAfter, fuzzy));
+        }
+
+        return new CursorSearchResult<>(total, hits, nextCursor);
+    }
+
+    private <T> SearchResponse<T> cursorPage(CursorToken token, boolean fuzzy, String q,
+                                             Integer minAge, Integer maxAge,
+                                             String category, String type,
+                                             Double minPrice, Double maxPrice,
+                                             Instant startDate, String sort, int size,
+                                             CourseView<T> view) throws IOException {
+        boolean firstPage = token.searchAfter() == null;
+        return searchMetrics.timeSearch("cursor", () -> client.search(s -> {
+                    // A PIT search must not name an index: the PIT already pins the index snapshot
+                    view.applySource(s).pit(p -> p.id(token.pitId()).keepAlive(k -> k.time(PIT_KEEP_ALIVE)))
+                            .size(size)
+                            .trackTotalHits(t -> t.enabled(firstPage)) // count once, keep later pages constant-cost
+                            .query(qb -> qb
+                                    .bool(b -> applyFilters(applyKeyword(b, q, fuzzy), minAge, maxAge, category, type, minPrice, maxPrice, startDate))
+                            )
+                            .sort(sb -> applySort(sb, sort))
+                            .sort(sb -> sb.field(f -> f.field("id").order(SortOrder.Asc))); // stable tiebreaker
+                    if (token.searchAfter() != null) {
+                        s.searchAfter(token.searchAfter().stream().map(SearchService::toFieldValue).toList());
+                    }
+                    return s;
+                },
+                view.type()
+        ));
+    }
+
+    /**
+     * Answer for a search Elasticsearch was not asked: the in-memory snapshot, matching keywords as
+     * plain substrings. Results are not cached, so full answers return as soon as the load drops.
+     */
+    private <T> RepoSearchResult<T> snapshotFallback(OverloadedException rejected, String q,
+                                                     Integer minAge, Integer maxAge,
+                                                     String category, String type,
+                                                     Double minPrice, Double maxPrice,
+                                                     Instant startDate, String sort,
+                                                     int page, int size, CourseView<T> view) {
+        if (!catalogSnapshot.isLoaded()) throw rejected;
+        RepoSearchResult<CourseDocument> result = catalogSnapshot.search(q, minAge, maxAge,
+                category, type, minPrice, maxPrice, startDate, sort, page, size);
+        List<T> courses = result.getCourses().stream()
+                .map(c -> view.type().isInstance(c) ? view.type().cast(c) : objectMapper.convertValue(c, view.type()))
+                .collect(Collectors.toList());
+        return new RepoSearchResult<>(result.getTotal(), courses);
+    }
+
+    // ================= NDJSON export (point-in-time + search_after) =================
+    /**
+     * Streams every matching course to {@code out} as one JSON object per line, a batch at a time,
+     * so memory stays flat however many courses match. {@code fields} limits each line to those
+     * source fields; null or empty exports whole documents. Returns the number of rows written.
+     * Each batch waits for a search slot like any other search, so a long export cannot crowd out
+     * interactive queries or keep hammering an Elasticsearch the breaker has cut off.
+     */
+    public long exportCourses(String q, Integer minAge, Integer maxAge,
+                              String category, String type,
+                              Double minPrice, Double maxPrice,
+                              Instant startDate, String sort,
+                              List<String> fields, OutputStream out) throws IOException {
+        String pitId = esGuard.callBlocking(Bulkhead.SEARCH, this::openPointInTime);
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            // Same fuzzy decision as a search: only when the exact query finds too little
+            SearchResponse<ObjectNode> batch = exportBatch(pitId, null, false, q, minAge, maxAge,
+                    category, type, minPrice, maxPrice, startDate, sort, fields);
+            boolean fuzzy = isScarce(q, batch);
+            if (fuzzy) {
+                batch = exportBatch(pitId, null, true, q, minAge, maxAge,
+                        category, type, minPrice, maxPrice, startDate, sort, fields);
+            }
+            while (true) {
+                if (batch.pitId() != null) pitId = batch.pitId();
+                List<Hit<ObjectNode>> hits = batch.hits().hits();
+                for (Hit<ObjectNode> hit : hits) {
+                    if (hit.source() == null) continue;
+                    generator.writeTree(hit.source());
+                    generator.writeRaw('\n');
+                    rows++;
+                }
+                // Push each batch to the client before asking Elasticsearch for the next one
+                generator.flush();
+                if (hits.size() < EXPORT_BATCH_SIZE) break;
+
+                List<FieldValue> searchAfter = hits.get(hits.size() - 1).sort();
+                batch = exportBatch(pitId, searchAfter, fuzzy, q, minAge, maxAge,
+                        category, type, minPrice, maxPrice, startDate, sort, fields);
+            }
+        } finally {
+            String openPit = pitId;
+            client.closePointInTime(c -> c.id(openPit));
+        }
+        return rows;
+    }
+
+    private SearchResponse<ObjectNode> exportBatch(String pitId, List<FieldValue> searchAfter, boolean fuzzy,
+                                                   String q, Integer minAge, Integer maxAge,
+                                                   String category, String type,
+                                                   Double minPrice, Double maxPrice,
+                                                   Instant startDate, String sort,
+                                                   List<String> fields) throws IOException {
+        return esGuard.callBlocking(Bulkhead.SEARCH, () -> searchMetrics.timeSearch("export", () -> client.search(s -> {
+                    s.pit(p -> p.id(pitId).keepAlive(k -> k.time(PIT_KEEP_ALIVE)))
+                            .size(EXPORT_BATCH_SIZE)
+                            .trackTotalHits(t -> t.enabled(searchAfter == null && q != null && !q.isBlank()))
+                            .query(qb -> qb
+                                    .bool(b -> applyFilters(applyKeyword(b, q, fuzzy), minAge, maxAge, category, type, minPrice, maxPrice, startDate))
+                            )
+                            .sort(sb -> applySort(sb, sort))
+                            .sort(sb -> sb.field(f -> f.field("id").order(SortOrder.Asc))); // stable tiebreaker
+                    if (fields != null && !fields.isEmpty()) {
+                        s.source(src -> src.filter(f -> f.includes(fields)));
+                    }
+                    if (searchAfter != null) {
+                        s.searchAfter(searchAfter);
+                    }
+                    return s;
+                },
+                ObjectNode.class
+        )));
+    }
+
+    private String openPointInTime() throws IOException {
+        return client.openPointInTime(o -> o.index(INDEX).keepAlive(k -> k.time(PIT_KEEP_ALIVE))).id();
+    }
+
+    private String encodeCursor(CursorToken token) throws IOException {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(token));
+    }
+
+    private CursorToken decodeCursor(String cursor) {
+        CursorToken token;
+        try {
+            token = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), CursorToken.class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        if (token == null || token.pitId() == null) throw new IllegalArgumentException("Invalid cursor");
+        return token;
+    }
+
+    private static FieldValue toFieldValue(Object value) {
+        if (value == null) return FieldValue.NULL;
+        if (value instanceof Double || value instanceof Float) return FieldValue.of(((Number) value).doubleValue());
+        if (value instanceof Number n) return FieldValue.of(n.longValue());
+        if (value instanceof Boolean bool) return FieldValue.of(bool);
+        return FieldValue.of(value.toString());
+    }
+
+    // Match queries are analyzed (lowercased) server-side, so case-only differences share a cache entry
+    private static String normalizeText(String text) {
+        return text == null ? null : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Relevance query over title and description: whole words score highest, adjacent words (title
+     * shingles) add to that, and edge n-gram subfields let partial words match as prefixes.
+     * Fuzzy edits are only added on request, see {@link #withFuzzyFallback}.
+     */
+    private BoolQuery.Builder applyKeyword(BoolQuery.Builder b, String q, boolean fuzzy) {
+        if (q != null && !q.isBlank()) {
+            b.must(m -> m.bool(k -> {
+                k.should(s -> s.multiMatch(mm -> mm
+                                .query(q)
+                                .fields("title^3", "description")
+                                .type(TextQueryType.BestFields)
+                                .tieBreaker(0.3)))
+                        .should(s -> s.match(ma -> ma.field("title.shingle").query(q).boost(2f)))
+                        .should(s -> s.multiMatch(mm -> mm
+                                .query(q)
+                                .fields("title.prefix^2", "description.prefix^0.5")
+                                .operator(Operator.And)));
+                if (fuzzy) {
+                    k.should(s -> s.multiMatch(mm -> mm
+                            .query(q)
+                            .fields("title^1.5", "description^0.5")
+                            .fuzziness("AUTO")
+                            .prefixLength(1)));
+                }
+                return k.minimumShouldMatch("1");
+            }));
+        }
+        return b;
+    }
+
+    @FunctionalInterface
+    private interface KeywordSearch<T> {
+        SearchResponse<T> run(boolean fuzzy) throws IOException;
+    }
+
+    /** Runs the exact query first and repeats it with fuzzy matching only when it finds too few courses. */
+    private <T> SearchResponse<T> withFuzzyFallback(String q, KeywordSearch<T> search) throws IOException {
+        SearchResponse<T> response = search.run(false);
+        return isScarce(q, response) ? search.run(true) : response;
+    }
+
+    private boolean isScarce(String q, SearchResponse<?> response) {
+        return q != null && !q.isBlank()
+                && response.hits().total() != null
+                && response.hits().total().value() < fuzzyMinHits;
+    }
+
+    private BoolQuery.Builder applyFilters(BoolQuery.Builder b, Integer minAge, Integer maxAge,
+                                           String category, String type,
+                                           Double minPrice, Double maxPrice, Instant startDate) {
+        filterClauses(minAge, maxAge, category, type, minPrice, maxPrice, startDate).values().forEach(b::filter);
+        return b;
+    }
+
+    // Filter clauses keyed by the facet they restrict, so a facet can be counted without its own filter
+    static Map<String, List<Query>> filterClauses(Integer minAge, Integer maxAge,
+                                                  String category, String type,
+                                                  Double minPrice, Double maxPrice, Instant startDate) {
+        Map<String, List<Query>> clauses = new LinkedHashMap<>();
+        // One range query on the derived ageRange: WITHIN keeps "course ages fall inside [minAge, maxAge]"
+        if (minAge != null || maxAge != null) addClause(clauses, "age", Query.of(f -> f.range(r -> {
+            r.field("ageRange").relation(RangeRelation.Within);
+            if (minAge != null) r.gte(JsonData.of(minAge));
+            if (maxAge != null) r.lte(JsonData.of(maxAge));
+            return r;
+        })));
+        // Keywords are stored as written ("Math"); match them the way the snapshot fallback does
+        if (category != null && !category.isBlank()) addClause(clauses, "category", Query.of(f -> f.term(t -> t.field("category").value(category).caseInsensitive(true))));
+        if (type != null && !type.isBlank()) addClause(clauses, "type", Query.of(f -> f.term(t -> t.field("type").value(type).caseInsensitive(true))));
+        if (minPrice != null) addClause(clauses, "price", Query.of(f -> f.range(r -> r.field("price").gte(JsonData.of(minPrice)))));
+        if (maxPrice != null) addClause(clauses, "price", Query.of(f -> f.range(r -> r.field("price").lte(JsonData.of(maxPrice)))));
+        if (startDate != null) addClause(clauses, "nextSessionDate", Query.of(f -> f.range(r -> r.field("nextSessionDate").gte(JsonData.of(startDate.toString())))));
+        return clauses;
+    }
+
+    private static void addClause(Map<String, List<Query>> clauses, String facet, Query query) {
+        clauses.computeIfAbsent(facet, k -> new ArrayList<>()).add(query);
+    }
+
+    static List<Query> clausesExcept(Map<String, List<Query>> clauses, String facet) {
+        String own = filterKey(facet);
+        List<Query> result = new ArrayList<>();
+        clauses.forEach((name, queries) -> {
+            if (!name.equals(own)) result.addAll(queries);
+        });
+        return result;
+    }
+
+    // The age facets share the single ageRange filter
+    static String filterKey(String facet) {
+        if (facet == null) return null;
+        return switch (facet) {
+            case "minAge", "maxAge", "ageBands" -> "age";
+            default -> facet;
+        };
+    }
+
+    private SortOptions.Builder applySort(SortOptions.Builder sb, String sort) {
+        if ("priceAsc".equalsIgnoreCase(sort)) sb.field(f -> f.field("price").order(SortOrder.Asc));
+        else if ("priceDesc".equalsIgnoreCase(sort)) sb.field(f -> f.field("price").order(SortOrder.Desc));
+        else if ("relevance".equalsIgnoreCase(sort)) sb.score(sc -> sc.order(SortOrder.Desc));
+        else sb.field(f -> f.field("nextSessionDate").order(SortOrder.Asc));
+        return sb;
+    }
+
+    // ================= Faceted search =================
+    public FacetedSearchResult<CourseDocument> searchCoursesFaceted(String q, Integer minAge, Integer maxAge,
+                                                                    String category, String type,
+                                                                    Double minPrice, Double maxPrice,
+                                                                    Instant startDate, String sort,
+                                                                    int page, int size) throws IOException {
+        return searchCoursesFaceted(q, minAge, maxAge, category, type, minPrice, maxPrice, startDate, sort, page, size, CourseView.FULL);
+    }
+
+    public <T> FacetedSearchResult<T> searchCoursesFaceted(String q, Integer minAge, Integer maxAge,
+                                                           String category, String type,
+                                                           Double minPrice, Double maxPrice,
+                                                           Instant startDate, String sort,
+                                                           int page, int size, CourseView<T> view) throws IOException {
+        List<Object> key = searchCache.key("faceted", view.name(), normalizeText(q), minAge, maxAge, category, type,
+                minPrice, maxPrice, startDate, sort, page, size);
+        JavaType resultType = objectMapper.getTypeFactory().constructParametricType(FacetedSearchResult.class, view.type());
+        return searchMetrics.timeRequest("faceted", () -> searchCache.get(key, resultType, () -> esGuard.call(Bulkhead.SEARCH,
+                () -> fetchCoursesFaceted(q, minAge, maxAge, category, type, minPrice, maxPrice, startDate, sort, page, size, view))));
+    }
+
+    private <T> FacetedSearchResult<T> fetchCoursesFaceted(String q, Integer minAge, Integer maxAge,
+                                                           String category, String type,
+                                                           Double minPrice, Double maxPrice,
+                                                           Instant startDate, String sort,
+                                                           int page, int size, CourseView<T> view) throws IOException {
+        Map<String, List<Query>> clauses = filterClauses(minAge, maxAge, category, type, minPrice, maxPrice, startDate);
+        int from = page * size;
+
+        SearchResponse<T> response = withFuzzyFallback(q, fuzzy -> searchMetrics.timeSearch("faceted", () -> client.search(s -> {
+                    view.applySource(s).index(INDEX)
+                            .from(from)
+                            .size(size)
+                            .trackTotalHits(t -> t.enabled(true))
+                            .query(qb -> qb.bool(b -> applyKeyword(b, q, fuzzy)))
+                            // post_filter narrows hits after aggregation, so each facet can skip just its own filter
+                            .postFilter(pf -> pf.bool(b -> b.filter(clausesExcept(clauses, null))))
+                            .sort(sb -> applySort(sb, sort));
+                    for (String facet : FACETS) {
+                        s.aggregations(facet, a -> a
+                                .filter(f -> f.bool(b -> b.filter(clausesExcept(clauses, facet))))
+                                .aggregations(FACET_VALUES, facetAggregation(facet))
+                        );
+                    }
+                    return s;
+                },
+                view.type()
+        )));
+
+        List<T> hits = response.hits().hits().stream()
+                .map(Hit::source)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        Map<String, List<FacetBucket>> facets = new LinkedHashMap<>();
+        for (String facet : FACETS) {
+            Aggregate scoped = response.aggregations().get(facet);
+            facets.put(facet, scoped == null ? List.of() : facetBuckets(scoped.filter().aggregations().get(FACET_VALUES)));
+        }
+
+        long total = response.hits().total() != null ? response.hits().total().value() : hits.size();
+        return new FacetedSearchResult<>((int) total, hits, facets);
+    }
+
+    private static Aggregation facetAggregation(String facet) {
+        return switch (facet) {
+            // Bands are precomputed keywords (CourseIngestService), so this is a plain terms count
+            case "price" -> Aggregation.of(a -> a.terms(t -> t
+                    .field("priceBand")
+                    .minDocCount(0)
+                    .order(List.of(NamedValue.of("_key", SortOrder.Asc)))));
+            case "ageBands" -> Aggregation.of(a -> a.terms(t -> t
+                    .field(facet)
+                    .order(List.of(NamedValue.of("_key", SortOrder.Asc)))));
+            case "minAge", "maxAge" -> Aggregation.of(a -> a.histogram(h -> h
+                    .field(facet)
+                    .interval(AGE_FACET_INTERVAL)
+                    .minDocCount(1)));
+            case "nextSessionDate" -> Aggregation.of(a -> a.dateHistogram(h -> h
+                    .field(facet)
+                    .calendarInterval(CalendarInterval.Month)
+                    .format("yyyy-MM")
+                    .minDocCount(1)));
+            default -> Aggregation.of(a -> a.terms(t -> t.field(facet).size(TERMS_FACET_SIZE)));
+        };
+    }
+
+    private static List<FacetBucket> facetBuckets(Aggregate values) {
+        if (values == null) return List.of();
+        if (values.isSterms()) {
+            return values.sterms().buckets().array().stream()
+                    .map(b -> new FacetBucket(b.key().stringValue(), b.docCount())).toList();
+        }
+        if (values.isHistogram()) {
+            return values.histogram().buckets().array().stream()
+                    .map(b -> new FacetBucket(String.valueOf((long) b.key()), b.docCount())).toList();
+        }
+        if (values.isDateHistogram()) {
+            return values.dateHistogram().buckets().array().stream()
+                    .map(b -> new FacetBucket(b.keyAsString(), b.docCount())).toList();
+        }
+        return List.of();
+    }
+
+    Comparator<CourseDocument> getComparator(String sort) {
         if ("priceAsc".equalsIgnoreCase(sort)) return Comparator.comparingDouble(CourseDocument::getPrice);
         if ("priceDesc".equalsIgnoreCase(sort)) return Comparator.comparingDouble(CourseDocument::getPrice).reversed();
         return Comparator.comparing(CourseDocument::getNextSessionDate);
     }
 
-    public static class RepoSearchResult {
+    // Result classes are generic over the hit type so a projected view carries its own DTO
+    public static class RepoSearchResult<T> {
+        private final int total;
+        private final List<T> courses;
+        @JsonCreator
+        public RepoSearchResult(@JsonProperty("total") int total, @JsonProperty("courses") List<T> courses) {
+            this.total = total;
+            this.courses = courses;
+        }
+        public int getTotal() { return total; }
+        public List<T> getCourses() { return courses; }
+    }
+
+    public static class FacetedSearchResult<T> {
         private final int total;
-        private final List<CourseDocument> courses;
-        public RepoSearchResult(int total, List<CourseDocument> courses) {
+        private final List<T> courses;
+        private final Map<String, List<FacetBucket>> facets;
+        @JsonCreator
+        public FacetedSearchResult(@JsonProperty("total") int total,
+                                   @JsonProperty("courses") List<T> courses,
+                                   @JsonProperty("facets") Map<String, List<FacetBucket>> facets) {
             this.total = total;
             this.courses = courses;
+            this.facets = facets;
         }
         public int getTotal() { return total; }
-        public List<CourseDocument> getCourses() { return courses; }
+        public List<T> getCourses() { return courses; }
+        public Map<String, List<FacetBucket>> getFacets() { return facets; }
+    }
+
+    public record FacetBucket(String key, long count) {}
+
+    public static class CursorSearchResult<T> {
+        private final Long total;
+        private final List<T> courses;
+        private final String nextCursor;
+        public CursorSearchResult(Long total, List<T> courses, String nextCursor) {
+            this.total = total;
+            this.courses = courses;
+            this.nextCursor = nextCursor;
+        }
+        public Long getTotal() { return total; }
+        public List<T> getCourses() { return courses; }
+        public String getNextCursor() { return nextCursor; }
     }
 
+    // Opaque cursor payload: the PIT id plus the sort values of the last hit returned
+    record CursorToken(String pitId, List<Object> searchAfter, boolean fuzzy) {}
+
     // ================= Elasticsearch autocomplete =================
-   public List<String> getSuggestions(String prefix) throws IOException {
-    SearchResponse<CourseDocument> response = client.search(s -> s
+    public List<String> getSuggestions(String prefix) throws IOException {
+        // In-memory engine answers without a round trip once it has been built
+        return searchMetrics.timeRequest("suggest", () -> {
+            if (localSuggester.isActive()) {
+                List<String> suggestions = localSuggester.suggest(prefix, SUGGEST_SIZE);
+                searchMetrics.recordResults("suggest", suggestions.size());
+                return suggestions;
+            }
+            try {
+                return searchCache.get(searchCache.key("suggest", normalizeText(prefix)), STRING_LIST,
+                        () -> esGuard.call(Bulkhead.SUGGEST, () -> fetchSuggestions(prefix)));
+            } catch (OverloadedException e) {
+                // Typeahead is best-effort: under load an empty list beats a slow one
+                return List.<String>of();
+            }
+        });
+    }
+
+   private List<String> fetchSuggestions(String prefix) throws IOException {
+    SearchResponse<CourseDocument> response = searchMetrics.timeSearch("suggest", () -> client.search(s -> s
                     .index(INDEX)
                     .suggest(sg -> sg
                         .suggesters("course-suggest", su -> su
@@ -174,12 +754,12 @@ public List<CourseDocument> searchCoursesFuzzy(String q, Integer minAge, Integer
                             .completion(c -> c
                                 .field("autocomplete")
                                 .skipDuplicates(true)
-                                .size(5)
+                                .size(SUGGEST_SIZE)
                             )
                         )
                     ),
             CourseDocument.class
-    );
+    ));
 
     if (response.suggest() == null || !response.suggest().containsKey("course-suggest")) {
         return Collections.emptyList();
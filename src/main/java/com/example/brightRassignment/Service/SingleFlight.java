@@ -0,0 +1,88 @@
+package com.example.brightRassignment.Service;
+
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collapses concurrent loads of the same key into one: the first caller runs the loader, and
+ * callers arriving while it runs wait for it and share its result, or its Elasticsearch or I/O
+ * failure. If the load died for its own reasons instead (interrupted, cancelled, a bug), each
+ * waiter runs the loader itself. A waiter gives
+ * up after {@code maxWait} with an {@link OverloadedException}, so a stuck load sends its waiters
+ * to the same fallback as a refused call. Nothing is kept once the load finishes; remembering
+ * results is the cache's job.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+    private final LongAdder shared = new LongAdder();
+    private final long maxWaitNanos;
+
+    public SingleFlight(Duration maxWait) {
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    public V run(K key, SearchCache.Loader<V> loader) throws IOException {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = calls.putIfAbsent(key, call);
+        if (running != null) {
+            shared.increment();
+            return await(running, loader);
+        }
+        try {
+            V value = loader.load();
+            call.complete(value);
+            return value;
+        } catch (Throwable t) {
+            // Errors too: a waiter must never be left blocked on a load that died
+            call.completeExceptionally(t);
+            throw t;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    /** Number of calls answered by another caller's load. */
+    public long shared() {
+        return shared.sum();
+    }
+
+    private V await(CompletableFuture<V> running, SearchCache.Loader<V> loader) throws IOException {
+        try {
+            return running.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new OverloadedException("Timed out waiting for an identical search in flight");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a shared search");
+        } catch (CancellationException e) {
+            return loader.load();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (!interrupted(cause)) {
+                if (cause instanceof IOException io) throw io;
+                if (cause instanceof ElasticsearchException | cause instanceof OverloadedException) {
+                    throw (RuntimeException) cause;
+                }
+            }
+            return loader.load();
+        }
+    }
+
+    private static boolean interrupted(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof InterruptedException || t instanceof InterruptedIOException) return true;
+        }
+        return false;
+    }
+}
@@ -1,38 +1,83 @@
 package com.example.brightRassignment.config;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.json.JsonpMapper;
 import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import co.elastic.clients.transport.ElasticsearchTransport;
 import co.elastic.clients.transport.rest_client.RestClientTransport;
-import org.apache.http.HttpHost;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
 import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestClientBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.elasticsearch.RestClientBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.databind.SerializationFeature;
 
+import java.time.Duration;
+
+/**
+ * Elasticsearch client wiring. The low-level {@link RestClient} comes from Spring Boot, so hosts and
+ * timeouts are set with {@code spring.elasticsearch.uris}, {@code connection-timeout} and
+ * {@code socket-timeout}; requests are spread round-robin over the listed hosts. Pool size,
+ * keep-alive and gzip are tuned here. The sync and async clients share one transport and pool.
+ */
 @Configuration
 public class ElasticsearchConfig {
 
     @Bean
-    public ElasticsearchClient elasticsearchClient() {
-        // 1️⃣ Configure ObjectMapper with JavaTimeModule
-        ObjectMapper mapper = new ObjectMapper();
+    public RestClientBuilderCustomizer elasticsearchPoolCustomizer(
+            @Value("${elasticsearch.pool.max-connections:100}") int maxConnections,
+            @Value("${elasticsearch.pool.max-connections-per-route:50}") int maxConnectionsPerRoute,
+            @Value("${elasticsearch.pool.keep-alive:30s}") Duration keepAlive,
+            @Value("${elasticsearch.compression:true}") boolean compression) {
+        return new RestClientBuilderCustomizer() {
+            @Override
+            public void customize(RestClientBuilder builder) {
+                // gzip request bodies and ask for gzip responses; the client inflates them transparently
+                builder.setCompressionEnabled(compression);
+            }
+
+            @Override
+            public void customize(HttpAsyncClientBuilder builder) {
+                builder.setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxConnectionsPerRoute)
+                        // Reuse connections, but drop them before a load balancer or the node closes them idle
+                        .setKeepAliveStrategy((response, context) -> keepAlive.toMillis());
+            }
+        };
+    }
+
+    @Bean
+    public JsonpMapper elasticsearchJsonpMapper(ObjectMapper objectMapper, MeterRegistry registry) {
+        // Copy of the application mapper, so client tweaks never leak into the web layer
+        ObjectMapper mapper = objectMapper.copy();
         mapper.registerModule(new JavaTimeModule());
         mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        // Unset fields stay out of documents; a completion with "weight":null is rejected by the mapping
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
 
-        // 2️⃣ JacksonJsonpMapper wraps the ObjectMapper
-        JacksonJsonpMapper jsonpMapper = new JacksonJsonpMapper(mapper);
-
-        // 3️⃣ Create low-level REST client
-        RestClient restClient = RestClient.builder(
-            new HttpHost("localhost", 9200)
-        ).build();
+        // TimedJsonpMapper times response decoding
+        return new TimedJsonpMapper(new JacksonJsonpMapper(mapper), registry);
+    }
 
-        // 4️⃣ Create transport layer
-        RestClientTransport transport = new RestClientTransport(restClient, jsonpMapper);
+    @Bean
+    public ElasticsearchTransport elasticsearchTransport(RestClient restClient, JsonpMapper jsonpMapper) {
+        return new RestClientTransport(restClient, jsonpMapper);
+    }
 
-        // 5️⃣ Return Elasticsearch client
+    @Bean
+    public ElasticsearchClient elasticsearchClient(ElasticsearchTransport transport) {
         return new ElasticsearchClient(transport);
     }
+
+    @Bean
+    public ElasticsearchAsyncClient elasticsearchAsyncClient(ElasticsearchTransport transport) {
+        return new ElasticsearchAsyncClient(transport);
+    }
 }
@@ -0,0 +1,109 @@
+package com.example.brightRassignment.config;
+
+import co.elastic.clients.json.BufferingJsonGenerator;
+import co.elastic.clients.json.BufferingJsonpMapper;
+import co.elastic.clients.json.JsonpMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.json.spi.JsonProvider;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delegating mapper that times deserialization of application types (the {@code _source} of each hit)
+ * into {@code search.deserialize}. Elasticsearch API types have their own deserializers and are not timed.
+ * {@link #withAttribute} re-wraps, since the client derives a new mapper for every typed search.
+ */
+public class TimedJsonpMapper implements BufferingJsonpMapper {
+
+    private final BufferingJsonpMapper delegate;
+    private final MeterRegistry registry;
+    private final Map<Type, Timer> timers;
+
+    public TimedJsonpMapper(BufferingJsonpMapper delegate, MeterRegistry registry) {
+        this(delegate, registry, new ConcurrentHashMap<>());
+    }
+
+    private TimedJsonpMapper(BufferingJsonpMapper delegate, MeterRegistry registry, Map<Type, Timer> timers) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.timers = timers;
+    }
+
+    @Override
+    public JsonProvider jsonProvider() {
+        return delegate.jsonProvider();
+    }
+
+    @Override
+    public <T> T deserialize(JsonParser parser, Type type) {
+        Timer timer = timerFor(type);
+        if (timer == null) return delegate.deserialize(parser, type);
+        long start = System.nanoTime();
+        try {
+            return delegate.deserialize(parser, type);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public <T> T deserialize(JsonParser parser, Type type, JsonParser.Event event) {
+        Timer timer = timerFor(type);
+        if (timer == null) return delegate.deserialize(parser, type, event);
+        long start = System.nanoTime();
+        try {
+            return delegate.deserialize(parser, type, event);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public <T> void serialize(T value, JsonGenerator generator) {
+        delegate.serialize(value, generator);
+    }
+
+    @Override
+    public boolean ignoreUnknownFields() {
+        return delegate.ignoreUnknownFields();
+    }
+
+    @Override
+    public <T> T attribute(String name) {
+        return delegate.attribute(name);
+    }
+
+    @Override
+    public <T> T attribute(String name, T defaultValue) {
+        return delegate.attribute(name, defaultValue);
+    }
+
+    @Override
+    public <T> JsonpMapper withAttribute(String name, T value) {
+        JsonpMapper derived = delegate.withAttribute(name, value);
+        return derived instanceof BufferingJsonpMapper buffering
+                ? new TimedJsonpMapper(buffering, registry, timers)
+                : derived;
+    }
+
+    @Override
+    public BufferingJsonGenerator createBufferingGenerator() {
+        return delegate.createBufferingGenerator();
+    }
+
+    private Timer timerFor(Type type) {
+        if (!(type instanceof Class<?> cls) || cls.getName().startsWith("co.elastic.") || cls.getName().startsWith("java.")) {
+            return null;
+        }
+        return timers.computeIfAbsent(type, t -> Timer.builder("search.deserialize")
+                .tag("type", cls.getSimpleName())
+                .publishPercentiles(0.5, 0.99)
+                .register(registry));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.brightRassignment.Bootstrap;
+
+import com.example.brightRassignment.Bootstrap.ElasticsearchBootstrap.Phase;
+import com.example.brightRassignment.Bootstrap.ElasticsearchBootstrap.Status;
+import com.example.brightRassignment.Service.ConcurrentReindexException;
+import com.example.brightRassignment.Service.CourseIngestService.IngestReport;
+import com.example.brightRassignment.Service.CourseReindexService;
+import com.example.brightRassignment.Service.CourseReindexService.ReindexResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ElasticsearchBootstrapTest {
+
+    private static final String SOURCE = "classpath:sample-courses.json";
+    private static final ReindexResult LOADED = new ReindexResult("courses-v1", List.of(), List.of(),
+            new IngestReport(3, 3, 0, List.of()));
+
+    private final CourseReindexService reindex = mock(CourseReindexService.class);
+    private final ElasticsearchBootstrap bootstrap = new ElasticsearchBootstrap(reindex, SOURCE, true,
+            Duration.ofMillis(10), Duration.ofMillis(40), Duration.ofSeconds(5));
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(reindex.fingerprint(SOURCE)).thenReturn("abc");
+    }
+
+    @AfterEach
+    void tearDown() {
+        bootstrap.destroy();
+    }
+
+    @Test
+    void retriesUntilElasticsearchIsReachable() throws Exception {
+        when(reindex.isAliased())
+                .thenThrow(new ConnectException("Connection refused"))
+                .thenThrow(new ConnectException("Connection refused"))
+                .thenReturn(false);
+        when(reindex.reindex(SOURCE, "abc")).thenReturn(LOADED);
+
+        bootstrap.run(null);
+
+        Status status = awaitStatus(s -> s.phase() == Phase.READY);
+        assertThat(status.ready()).isTrue();
+        assertThat(status.index()).isEqualTo("courses-v1");
+        verify(reindex).reindex(SOURCE, "abc");
+    }
+
+    @Test
+    void failedFirstLoadStaysUnreadyAndIsRetried() throws Exception {
+        when(reindex.isAliased()).thenReturn(false);
+        when(reindex.reindex(SOURCE, "abc")).thenThrow(new IOException("bulk failed")).thenReturn(LOADED);
+
+        bootstrap.run(null);
+
+        assertThat(awaitStatus(s -> s.phase() == Phase.READY).ready()).isTrue();
+        verify(reindex, times(2)).reindex(SOURCE, "abc");
+    }
+
+    @Test
+    void failedReloadKeepsServingTheAliasWithoutRetrying() throws Exception {
+        when(reindex.isAliased()).thenReturn(true);
+        when(reindex.currentFingerprint()).thenReturn("old");
+        when(reindex.reindex(SOURCE, "abc")).thenThrow(new IOException("bulk failed"));
+
+        bootstrap.run(null);
+
+        Status status = awaitStatus(s -> s.phase() == Phase.FAILED);
+        assertThat(status.ready()).isTrue();
+        assertThat(status.error()).contains("bulk failed");
+        verify(reindex, after(200).times(1)).reindex(anyString(), anyString());
+    }
+
+    @Test
+    void waitsForAnotherInstanceBuildingTheSameVersion() throws Exception {
+        when(reindex.isAliased()).thenReturn(false, false, false, true);
+        when(reindex.currentFingerprint()).thenReturn("abc");
+        when(reindex.listVersions()).thenReturn(List.of("courses-v1"));
+        when(reindex.reindex(SOURCE, "abc")).thenThrow(new ConcurrentReindexException("courses-v1"));
+
+        bootstrap.run(null);
+
+        Status status = awaitStatus(s -> s.phase() == Phase.READY);
+        assertThat(status.fingerprint()).isEqualTo("abc");
+        assertThat(status.index()).isEqualTo(CourseReindexService.ALIAS);
+        verify(reindex, times(1)).reindex(anyString(), anyString());
+    }
+
+    @Test
+    void reindexesItselfWhenTheOtherBuildGoesAway() throws Exception {
+        when(reindex.isAliased()).thenReturn(false);
+        when(reindex.listVersions()).thenReturn(List.of());
+        when(reindex.reindex(SOURCE, "abc")).thenThrow(new ConcurrentReindexException("courses-v1")).thenReturn(LOADED);
+
+        bootstrap.run(null);
+
+        assertThat(awaitStatus(s -> s.phase() == Phase.READY).index()).isEqualTo("courses-v1");
+        verify(reindex, times(2)).reindex(SOURCE, "abc");
+    }
+
+    private Status awaitStatus(Predicate<Status> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.test(bootstrap.status()) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(bootstrap.status()).matches(condition);
+        return bootstrap.status();
+    }
+}
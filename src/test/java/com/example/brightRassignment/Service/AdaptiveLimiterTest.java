@@ -0,0 +1,89 @@
+package com.example.brightRassignment.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimiterTest {
+
+    private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final AdaptiveLimiter limiter = new AdaptiveLimiter(2, 10, TARGET);
+
+    @Test
+    void slowOrOverloadedCallsCutTheLimitDownToTheMinimum() {
+        assertThat(limiter.limit()).isEqualTo(10);
+
+        cycle(1, SLOW, false);
+        assertThat(limiter.limit()).isEqualTo(9);
+        cycle(1, FAST, true);
+        assertThat(limiter.limit()).isEqualTo(8); // 10 * 0.9 * 0.9
+
+        for (int i = 0; i < 50; i++) cycle(1, SLOW, false);
+        assertThat(limiter.limit()).isEqualTo(2);
+    }
+
+    @Test
+    void fastCallsGrowASaturatedLimitBackToTheMaximum() {
+        for (int i = 0; i < 5; i++) cycle(1, SLOW, false);
+        int reduced = limiter.limit();
+        assertThat(reduced).isEqualTo(5); // 10 * 0.9^5 = 5.9
+
+        // About one slot per full window of fast calls
+        cycle(reduced, FAST, false);
+        assertThat(limiter.limit()).isEqualTo(6);
+        for (int i = 0; i < 20; i++) cycle(limiter.limit(), FAST, false);
+        assertThat(limiter.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void fastCallsDoNotGrowALimitThatIsNotUsed() {
+        for (int i = 0; i < 5; i++) cycle(1, SLOW, false);
+
+        for (int i = 0; i < 100; i++) cycle(1, FAST, false);
+
+        assertThat(limiter.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void refusesOverTheLimitAndCancelLeavesItAlone() {
+        for (int i = 0; i < 10; i++) assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.cancel();
+
+        assertThat(limiter.inFlight()).isEqualTo(9);
+        assertThat(limiter.limit()).isEqualTo(10);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void acquireWaitsForAReleasedSlot() throws Exception {
+        for (int i = 0; i < 10; i++) limiter.tryAcquire();
+        CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> {
+            try {
+                limiter.acquire();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Thread.sleep(50);
+        assertThat(waiter).isNotDone();
+        limiter.release(FAST, false);
+
+        waiter.get(5, TimeUnit.SECONDS);
+        assertThat(limiter.inFlight()).isEqualTo(10);
+    }
+
+    // Takes n slots, then returns them all with the given latency
+    private void cycle(int n, long latencyNanos, boolean overloaded) {
+        for (int i = 0; i < n; i++) assertThat(limiter.tryAcquire()).isTrue();
+        for (int i = 0; i < n; i++) limiter.release(latencyNanos, overloaded);
+    }
+}
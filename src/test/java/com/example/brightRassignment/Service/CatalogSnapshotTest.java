@@ -0,0 +1,103 @@
+package com.example.brightRassignment.Service;
+
+import com.example.brightRassignment.Document.CourseDocument;
+import com.example.brightRassignment.Repository.CourseRepository;
+import com.example.brightRassignment.support.SyntheticCourses;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogSnapshotTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final List<CourseDocument> catalog = SyntheticCourses.generate(3_000);
+
+    private SearchService streamSearch;
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        CourseRepository repository = mock(CourseRepository.class);
+        when(repository.findAll()).thenReturn(catalog);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // Snapshot left unloaded, so searchCoursesRepo takes the stream path
+        streamSearch = new SearchService(repository, mapper,
+                new SearchCache(mapper, registry, 0, Duration.ZERO, Duration.ofSeconds(1)),
+                new LocalSuggester(null, "elasticsearch", Duration.ZERO),
+                new SearchMetrics(registry), new CatalogSnapshot(null, false, Duration.ZERO),
+                new ElasticsearchGuard(registry, 1, 100, Duration.ofSeconds(1), 100, Duration.ofSeconds(1),
+                        100, Duration.ofSeconds(1), 5, Duration.ofSeconds(1)), 3);
+
+        snapshot = new CatalogSnapshot(null, true, Duration.ZERO);
+        snapshot.load(catalog);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"upcoming", "priceAsc", "priceDesc"})
+    void matchesStreamSearchForEverySort(String sort) {
+        Instant start = Instant.parse("2025-11-01T00:00:00Z");
+        assertMatches(null, null, null, null, null, null, null, null, sort, 0, 20);
+        assertMatches(null, null, null, null, null, null, null, null, sort, 7, 25);
+        assertMatches("robot", null, null, null, null, null, null, null, sort, 0, 10);
+        assertMatches("ROBOTICS", 8, null, null, null, null, null, null, sort, 1, 5);
+        assertMatches(null, 6, 12, "Science", null, null, null, null, sort, 0, 10);
+        assertMatches(null, null, null, "math", "club", 0.0, 20.0, null, sort, 0, 10);
+        assertMatches("through", null, 15, null, "COURSE", 5.0, null, start, sort, 2, 15);
+        assertMatches(null, null, null, "Unknown", null, null, null, null, sort, 0, 10);
+        assertMatches(null, null, null, null, null, null, null, null, sort, 10_000, 10);
+    }
+
+    @Test
+    void rebuildsHitsFromTheColumns() {
+        List<CourseDocument> hits = snapshot.search(null, null, null, null, null, null, null, null, "upcoming", 0, 50).getCourses();
+
+        for (CourseDocument hit : hits) {
+            CourseDocument original = catalog.stream().filter(c -> c.getId().equals(hit.getId())).findFirst().orElseThrow();
+            assertThat(mapper.valueToTree(hit).toString()).isEqualTo(mapper.valueToTree(original).toString());
+        }
+    }
+
+    @Test
+    void rebuildReadsOnlyTheColumnFields() throws Exception {
+        CourseCatalogReader reader = mock(CourseCatalogReader.class);
+        doAnswer(invocation -> {
+            Consumer<CourseDocument> consumer = invocation.getArgument(2);
+            catalog.subList(0, 100).forEach(consumer);
+            return null;
+        }).when(reader).forEach(eq(CourseDocument.class), eq(CatalogSnapshot.FIELDS), any());
+        CatalogSnapshot rebuilt = new CatalogSnapshot(reader, true, Duration.ZERO);
+
+        rebuilt.rebuild();
+
+        assertThat(rebuilt.isLoaded()).isTrue();
+        assertThat(rebuilt.size()).isEqualTo(100);
+    }
+
+    private void assertMatches(String q, Integer minAge, Integer maxAge, String category, String type,
+                               Double minPrice, Double maxPrice, Instant startDate, String sort, int page, int size) {
+        SearchService.RepoSearchResult<CourseDocument> expected = streamSearch.searchCoursesRepo(
+                q, minAge, maxAge, category, type, minPrice, maxPrice, startDate, sort, page, size);
+        SearchService.RepoSearchResult<CourseDocument> actual = snapshot.search(
+                q, minAge, maxAge, category, type, minPrice, maxPrice, startDate, sort, page, size);
+
+        assertThat(actual.getTotal()).isEqualTo(expected.getTotal());
+        assertThat(actual.getCourses()).extracting(CourseDocument::getId)
+                .containsExactlyElementsOf(expected.getCourses().stream().map(CourseDocument::getId).toList());
+    }
+}
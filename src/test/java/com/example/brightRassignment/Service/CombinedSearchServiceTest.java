@@ -0,0 +1,82 @@
+package com.example.brightRassignment.Service;
+
+import com.example.brightRassignment.Document.CourseDocument;
+import com.example.brightRassignment.Service.CombinedSearchService.CombinedSearchResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CombinedSearchServiceTest {
+
+    private final SearchService search = mock(SearchService.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CombinedSearchService combined = new CombinedSearchService(search, Duration.ofMillis(200));
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        combined.destroy();
+    }
+
+    @Test
+    void partsMissingTheDeadlineOrFailingAreReportedMissing() throws Exception {
+        CourseDocument chess = new CourseDocument();
+        chess.setTitle("Chess");
+        when(search.searchCoursesFuzzy(eq("chess"), any(), any(), any(), any(), any(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of(chess));
+        when(search.searchCoursesFaceted(eq("chess"), any(), any(), any(), any(), any(), any(), any(), any(), anyInt(), anyInt()))
+                .thenThrow(new IOException("search failed"));
+        CompletableFuture<Boolean> lateInterrupted = new CompletableFuture<>();
+        when(search.getSuggestions("chess")).thenAnswer(invocation -> {
+            try {
+                release.await();
+                lateInterrupted.complete(false);
+            } catch (InterruptedException e) {
+                lateInterrupted.complete(true);
+            }
+            return List.of("Chess Club");
+        });
+
+        long start = System.nanoTime();
+        CombinedSearchResult result = combined.search("chess", null, null, null, null, null, null, null, null, 0, 10);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(result.getCourses()).containsExactly(chess);
+        assertThat(result.getSuggestions()).isNull();
+        assertThat(result.getFacets()).isNull();
+        assertThat(result.getMissing()).containsExactlyInAnyOrder(CombinedSearchService.FACETS, CombinedSearchService.SUGGESTIONS);
+
+        // The late part keeps running to completion rather than being interrupted
+        release.countDown();
+        assertThat(lateInterrupted.get(5, TimeUnit.SECONDS)).isFalse();
+    }
+
+    @Test
+    void filterOnlySearchTakesTheTotalFromTheHits() throws Exception {
+        when(search.searchCoursesFiltered(any(), any(), eq("Math"), any(), any(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(new SearchService.RepoSearchResult<>(42, List.of()));
+        when(search.searchCoursesFaceted(any(), any(), any(), eq("Math"), any(), any(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(new SearchService.FacetedSearchResult<>(42, List.of(),
+                        Map.of("category", List.of(new SearchService.FacetBucket("Math", 42)))));
+
+        CombinedSearchResult result = combined.search(null, null, null, "Math", null, null, null, null, null, 0, 10);
+
+        assertThat(result.getTotal()).isEqualTo(42);
+        assertThat(result.getFacets()).containsKey("category");
+        assertThat(result.getMissing()).isEmpty();
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.brightRassignment.Service;
+
+import com.example.brightRassignment.Document.CourseDocument;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CourseIngestServiceTest {
+
+    @TempDir
+    Path root;
+
+    private Path sourceDir;
+    private CourseIngestService ingest;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sourceDir = Files.createDirectory(root.resolve("catalogs"));
+        Files.writeString(sourceDir.resolve("courses.json"), "[]");
+        Files.writeString(root.resolve("secret.json"), "[]");
+        ingest = new CourseIngestService(null, new ObjectMapper(), new DefaultResourceLoader(), null, null, null,
+                500, DataSize.ofMegabytes(5), 2, 3, Duration.ofMillis(200),
+                "classpath:sample-courses.json", sourceDir.toString());
+    }
+
+    @Test
+    void opensTheConfiguredSource() throws Exception {
+        try (InputStream in = ingest.open("classpath:sample-courses.json")) {
+            assertThat(in.read()).isEqualTo('[');
+        }
+    }
+
+    @Test
+    void opensFilesInsideTheSourceDirectory() throws Exception {
+        Path file = sourceDir.resolve("courses.json");
+        try (InputStream in = ingest.open(file.toString())) {
+            assertThat(in.readAllBytes()).asString().isEqualTo("[]");
+        }
+        try (InputStream in = ingest.open(file.toUri().toString())) {
+            assertThat(in.readAllBytes()).asString().isEqualTo("[]");
+        }
+    }
+
+    @Test
+    void rejectsEverythingElse() throws Exception {
+        Files.createSymbolicLink(sourceDir.resolve("link.json"), root.resolve("secret.json"));
+
+        for (String location : new String[] {
+                "classpath:application.properties",
+                root.resolve("secret.json").toString(),
+                sourceDir + "/../secret.json",
+                root.resolve("secret.json").toUri().toString(),
+                sourceDir.resolve("link.json").toString(),
+                "http://example.com/courses.json"}) {
+            assertThatThrownBy(() -> ingest.open(location))
+                    .as(location)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("not allowed");
+        }
+    }
+
+    @Test
+    void rejectsAnyOtherSourceWithoutASourceDirectory() {
+        CourseIngestService locked = new CourseIngestService(null, new ObjectMapper(), new DefaultResourceLoader(),
+                null, null, null, 500, DataSize.ofMegabytes(5), 2, 3, Duration.ofMillis(200),
+                "classpath:sample-courses.json", "");
+
+        assertThatThrownBy(() -> locked.open(sourceDir.resolve("courses.json").toString()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void onlyIngestIntoTheLiveIndexAnnouncesAChange() throws Exception {
+        ElasticsearchOperations operations = mock(ElasticsearchOperations.class);
+        when(operations.indexOps(any(IndexCoordinates.class))).thenReturn(mock(IndexOperations.class));
+        ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+        CourseIngestService live = new CourseIngestService(operations, new ObjectMapper(), new DefaultResourceLoader(),
+                events, null, null, 500, DataSize.ofMegabytes(5), 2, 3, Duration.ofMillis(200),
+                "classpath:sample-courses.json", sourceDir.toString());
+        String file = sourceDir.resolve("courses.json").toString();
+
+        live.ingest(file, IndexCoordinates.of("courses-v2"));
+        verify(events, never()).publishEvent(any(Object.class));
+
+        live.ingest(file);
+        verify(events).publishEvent(any(CourseIndexChangedEvent.class));
+    }
+
+    @Test
+    void derivesAgeRangeAndBandsAtTheBandEdges() {
+        CourseDocument course = course(6, 12, 10.0);
+
+        CourseIngestService.deriveFilterFields(course);
+
+        assertThat(course.getAgeRange()).isEqualTo(new CourseDocument.AgeRange(6, 12));
+        assertThat(course.getAgeBands()).containsExactly("06-08", "09-12");
+        assertThat(course.getPriceBand()).isEqualTo("10-25"); // bands are [from, to)
+    }
+
+    @Test
+    void openEndedAgesReachTheOuterBands() {
+        CourseDocument from16 = course(16, null, 0.0);
+        CourseDocument upTo5 = course(null, 5, 49.99);
+        CourseDocument ageless = course(null, null, 250.0);
+
+        CourseIngestService.deriveFilterFields(from16);
+        CourseIngestService.deriveFilterFields(upTo5);
+        CourseIngestService.deriveFilterFields(ageless);
+
+        assertThat(from16.getAgeRange()).isEqualTo(new CourseDocument.AgeRange(16, null));
+        assertThat(from16.getAgeBands()).containsExactly("13-17", "18+");
+        assertThat(from16.getPriceBand()).isEqualTo("0-10");
+        assertThat(upTo5.getAgeBands()).containsExactly("00-05");
+        assertThat(upTo5.getPriceBand()).isEqualTo("25-50");
+        assertThat(ageless.getAgeRange()).isNull();
+        assertThat(ageless.getAgeBands()).isNull();
+        assertThat(ageless.getPriceBand()).isEqualTo("50+");
+    }
+
+    @Test
+    void singleAgeAndMissingPrice() {
+        CourseDocument course = course(8, 8, null);
+
+        CourseIngestService.deriveFilterFields(course);
+
+        assertThat(course.getAgeBands()).containsExactly("06-08");
+        assertThat(course.getPriceBand()).isNull();
+    }
+
+    @Test
+    void rejectsMinAgeAboveMaxAge() {
+        CourseDocument course = course(12, 8, 10.0);
+
+        assertThatThrownBy(() -> CourseIngestService.deriveFilterFields(course))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("minAge 12 is greater than maxAge 8");
+    }
+
+    private static CourseDocument course(Integer minAge, Integer maxAge, Double price) {
+        CourseDocument course = new CourseDocument();
+        course.setId("c1");
+        course.setMinAge(minAge);
+        course.setMaxAge(maxAge);
+        course.setPrice(price);
+        return course;
+    }
+}
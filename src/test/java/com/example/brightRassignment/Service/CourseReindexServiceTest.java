@@ -0,0 +1,107 @@
+package com.example.brightRassignment.Service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.ErrorResponse;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import co.elastic.clients.elasticsearch.indices.GetIndexResponse;
+import com.example.brightRassignment.Document.CourseDocument;
+import com.example.brightRassignment.Service.CourseIngestService.IngestReport;
+import com.example.brightRassignment.Service.CourseIngestService.ItemFailure;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.elasticsearch.UncategorizedElasticsearchException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CourseReindexServiceTest {
+
+    private final ElasticsearchClient client = mock(ElasticsearchClient.class);
+    private final ElasticsearchIndicesClient indices = mock(ElasticsearchIndicesClient.class);
+    private final CourseIngestService ingest = mock(CourseIngestService.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final CourseWriteBuffer writes = mock(CourseWriteBuffer.class);
+    private final ElasticsearchOperations operations = mock(ElasticsearchOperations.class);
+    private CourseReindexService reindex;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        IndexOperations courseOps = mock(IndexOperations.class);
+        when(operations.indexOps(CourseDocument.class)).thenReturn(courseOps);
+        when(operations.indexOps(any(IndexCoordinates.class))).thenReturn(mock(IndexOperations.class));
+        when(courseOps.createSettings()).thenReturn(new Settings());
+        when(courseOps.createMapping()).thenReturn(Document.create());
+        when(client.indices()).thenReturn(indices);
+        when(indices.get(any(Function.class))).thenReturn(GetIndexResponse.of(g -> g.result(Map.of())));
+
+        reindex = new CourseReindexService(client, operations, ingest, events, writes, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void partialLoadDeletesTheNewVersionAndLeavesTheAliasAlone() throws Exception {
+        IngestReport partial = new IngestReport(3, 2, 1, List.of(new ItemFailure("c3", 400, "mapper_parsing_exception")));
+        when(ingest.ingest(eq("classpath:sample-courses.json"), eq(IndexCoordinates.of("courses-v1")))).thenReturn(partial);
+
+        assertThatThrownBy(() -> reindex.reindex("classpath:sample-courses.json", "abc"))
+                .isInstanceOfSatisfying(IncompleteReindexException.class, e -> {
+                    assertThat(e.index()).isEqualTo("courses-v1");
+                    assertThat(e.report()).isEqualTo(partial);
+                });
+
+        verify(indices).delete(any(Function.class));
+        verify(indices, never()).updateAliases(any(Function.class));
+        verify(indices, never()).putSettings(any(Function.class));
+        verify(events, never()).publishEvent(any(Object.class));
+        verify(writes).pause();
+        verify(writes).resume();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void losingTheRaceToCreateAVersionLeavesItToTheOtherInstance() throws Exception {
+        IndexOperations targetOps = mock(IndexOperations.class);
+        when(operations.indexOps(IndexCoordinates.of("courses-v1"))).thenReturn(targetOps);
+        ElasticsearchException exists = new ElasticsearchException("indices.create", ErrorResponse.of(e -> e.status(400)
+                .error(c -> c.type("resource_already_exists_exception").reason("index [courses-v1] already exists"))));
+        when(targetOps.create(any(Map.class), any(Document.class))).thenThrow(new UncategorizedElasticsearchException(exists.getMessage(), exists));
+
+        assertThatThrownBy(() -> reindex.reindex("classpath:sample-courses.json", "abc"))
+                .isInstanceOfSatisfying(ConcurrentReindexException.class, e -> assertThat(e.index()).isEqualTo("courses-v1"));
+
+        verify(ingest, never()).ingest(anyString(), any(IndexCoordinates.class));
+        verify(indices, never()).delete(any(Function.class));
+        verify(writes).resume();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedIngestDeletesTheNewVersion() throws Exception {
+        when(ingest.ingest(anyString(), any(IndexCoordinates.class))).thenThrow(new IllegalArgumentException("not allowed"));
+
+        assertThatThrownBy(() -> reindex.reindex("/etc/passwd", "abc")).isInstanceOf(IllegalArgumentException.class);
+
+        verify(indices).delete(any(Function.class));
+        verify(indices, never()).updateAliases(any(Function.class));
+        verify(writes).resume();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.brightRassignment.Service;
+
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.json.JsonpDeserializer;
+import co.elastic.clients.json.JsonpMapper;
+import com.example.brightRassignment.Document.CourseSummary;
+import com.example.brightRassignment.config.ElasticsearchConfig;
+import com.example.brightRassignment.support.SyntheticCourses;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.lang.reflect.RecordComponent;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CourseViewTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void resolvesViewNames() {
+        assertThat(CourseView.of(null)).isSameAs(CourseView.FULL);
+        assertThat(CourseView.of(" ")).isSameAs(CourseView.FULL);
+        assertThat(CourseView.of("Summary ")).isSameAs(CourseView.SUMMARY);
+        assertThat(CourseView.of("DETAIL")).isSameAs(CourseView.DETAIL);
+        assertThatThrownBy(() -> CourseView.of("compact"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("compact");
+    }
+
+    @Test
+    void sourceFilterMatchesTheView() {
+        assertThat(build(CourseView.FULL).source()).isNull();
+        assertThat(build(CourseView.SUMMARY).source().filter().includes()).isEqualTo(CourseSummary.FIELDS);
+        assertThat(build(CourseView.SUMMARY).source().filter().excludes()).isEmpty();
+        assertThat(build(CourseView.DETAIL).source().filter().excludes()).contains("autocomplete", "ageRange");
+    }
+
+    @Test
+    void summaryFieldsAreTheRecordComponents() {
+        assertThat(Arrays.stream(CourseSummary.class.getRecordComponents()).map(RecordComponent::getName))
+                .containsExactlyElementsOf(CourseSummary.FIELDS);
+    }
+
+    @Test
+    void summaryHitsDeserializeThroughTheClientMapper() {
+        JsonpMapper jsonpMapper = new ElasticsearchConfig().elasticsearchJsonpMapper(new ObjectMapper(), new SimpleMeterRegistry());
+        String json = """
+                {"took":1,"timed_out":false,"_shards":{"total":1,"successful":1,"skipped":0,"failed":0},
+                 "hits":{"total":{"value":1,"relation":"eq"},"max_score":null,"hits":[
+                   {"_index":"courses-v1","_id":"c1","_score":null,"sort":[1767225600000],
+                    "_source":{"id":"c1","title":"Robotics","category":"Science","type":"CLUB",
+                               "price":25.5,"nextSessionDate":"2026-01-01T00:00:00Z","description":"ignored"}}]}}
+                """;
+
+        SearchResponse<CourseSummary> response = SearchResponse.<CourseSummary>createSearchResponseDeserializer(
+                        JsonpDeserializer.of(CourseSummary.class))
+                .deserialize(jsonpMapper.jsonProvider().createParser(new StringReader(json)), jsonpMapper);
+
+        assertThat(response.hits().hits()).map(Hit::source).containsExactly(new CourseSummary(
+                "c1", "Robotics", "Science", "CLUB", 25.5, Instant.parse("2026-01-01T00:00:00Z")));
+    }
+
+    @Test
+    void summaryResultsSurviveTheCacheRoundTrip() throws Exception {
+        List<CourseSummary> summaries = SyntheticCourses.generate(20).stream()
+                .map(c -> mapper.convertValue(c, CourseSummary.class)) // as the snapshot fallback projects
+                .toList();
+        JavaType type = mapper.getTypeFactory().constructParametricType(
+                SearchService.RepoSearchResult.class, CourseSummary.class);
+
+        SearchService.RepoSearchResult<CourseSummary> read = mapper.readValue(
+                mapper.writeValueAsBytes(new SearchService.RepoSearchResult<>(42, summaries)), type);
+
+        assertThat(read.getTotal()).isEqualTo(42);
+        assertThat(read.getCourses()).containsExactlyElementsOf(summaries);
+        assertThat(read.getCourses()).allSatisfy(s -> assertThat(s.nextSessionDate()).isNotNull());
+    }
+
+    private static SearchRequest build(CourseView<?> view) {
+        return view.applySource(new SearchRequest.Builder().index("courses")).build();
+    }
+}
@@ -0,0 +1,366 @@
+package com.example.brightRassignment.Service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.MgetRequest;
+import co.elastic.clients.elasticsearch.core.MgetResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.bulk.OperationType;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.json.JsonpUtils;
+import co.elastic.clients.json.NdJsonpSerializable;
+import co.elastic.clients.util.ObjectBuilder;
+import com.example.brightRassignment.Document.CourseDocument;
+import com.example.brightRassignment.Service.CourseWriteBuffer.Outcome;
+import com.example.brightRassignment.Service.CourseWriteBuffer.WriteResult;
+import com.example.brightRassignment.config.ElasticsearchConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CourseWriteBufferTest {
+
+    private final ElasticsearchClient client = mock(ElasticsearchClient.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final List<BulkOperation> sent = new ArrayList<>();
+    private final List<BulkRequest> requests = new ArrayList<>();
+    private final Map<String, Integer> bulkStatus = new HashMap<>();
+    private final Map<String, CourseDocument> stored = new HashMap<>();
+    private final Map<String, Long> storedSeqNo = new HashMap<>();
+    private final AtomicInteger bulkFailures = new AtomicInteger();
+    private CourseWriteBuffer buffer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        CourseIngestService ingest = mock(CourseIngestService.class);
+        when(ingest.prepare(any())).thenAnswer(invocation -> {
+            CourseDocument course = invocation.getArgument(0);
+            CourseIngestService.deriveFilterFields(course);
+            return course;
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ElasticsearchGuard guard = new ElasticsearchGuard(registry, 1, 10, Duration.ofSeconds(1), 10, Duration.ofSeconds(1),
+                10, Duration.ofSeconds(10), 5, Duration.ofSeconds(1));
+
+        when(client.bulk(any(Function.class))).thenAnswer(invocation -> {
+            Function<BulkRequest.Builder, ObjectBuilder<BulkRequest>> fn = invocation.getArgument(0);
+            if (bulkFailures.getAndDecrement() > 0) throw new IOException("Connection reset");
+            BulkRequest request = fn.apply(new BulkRequest.Builder()).build();
+            List<BulkOperation> operations = request.operations();
+            requests.add(request);
+            sent.addAll(operations);
+            return BulkResponse.of(r -> r.took(1).errors(false).items(operations.stream().map(this::item).toList()));
+        });
+        when(client.mget(any(Function.class), eq(CourseDocument.class))).thenAnswer(invocation -> {
+            Function<MgetRequest.Builder, ObjectBuilder<MgetRequest>> fn = invocation.getArgument(0);
+            List<MultiGetResponseItem<CourseDocument>> docs = fn.apply(new MgetRequest.Builder()).build().ids().stream()
+                    .map(id -> MultiGetResponseItem.<CourseDocument>of(d -> d.result(g -> g
+                            .index("courses").id(id).found(stored.containsKey(id)).source(stored.get(id))
+                            .version(1L).seqNo(storedSeqNo.getOrDefault(id, 7L)).primaryTerm(1L))))
+                    .toList();
+            return MgetResponse.<CourseDocument>of(m -> m.docs(docs));
+        });
+
+        buffer = new CourseWriteBuffer(client, new ObjectMapper().findAndRegisterModules(), ingest, events,
+                new SearchMetrics(registry), guard, 500, Duration.ofHours(1), 3);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        buffer.destroy();
+    }
+
+    @Test
+    void patchOnQueuedUpsertSendsOneUpsertWithTheFieldsApplied() throws Exception {
+        CompletableFuture<WriteResult> upsert = buffer.upsert("c1", course("c1", "Chess", 10.0), 1L);
+        CompletableFuture<WriteResult> patch = buffer.patch("c1", Map.of("price", 12.5), 2L);
+
+        buffer.flush();
+
+        assertThat(sent).hasSize(1);
+        assertThat(sent.get(0).isIndex()).isTrue();
+        assertThat(sent.get(0).index().version()).isEqualTo(2L);
+        CourseDocument document = (CourseDocument) sent.get(0).index().document();
+        assertThat(document.getTitle()).isEqualTo("Chess");
+        assertThat(document.getPrice()).isEqualTo(12.5);
+        assertThat(upsert.get().outcome()).isEqualTo(Outcome.INDEXED);
+        assertThat(patch.get()).isEqualTo(upsert.get());
+        verify(events).publishEvent(new CoursesWrittenEvent(List.of("c1")));
+    }
+
+    @Test
+    void patchesMergeAndApplyToTheStoredCourse() throws Exception {
+        stored.put("c1", course("c1", "Chess", 10.0));
+        CompletableFuture<WriteResult> first = buffer.patch("c1", Map.of("price", 12.5, "title", "Chess Club"), 1L);
+        CompletableFuture<WriteResult> second = buffer.patch("c1", Map.of("title", "Chess Masters"), 2L);
+
+        buffer.flush();
+
+        assertThat(sent).hasSize(1);
+        CourseDocument document = (CourseDocument) sent.get(0).index().document();
+        assertThat(document.getTitle()).isEqualTo("Chess Masters");
+        assertThat(document.getPrice()).isEqualTo(12.5);
+        // Written back only over the course it was applied to
+        assertThat(sent.get(0).index().version()).isNull();
+        assertThat(sent.get(0).index().ifSeqNo()).isEqualTo(7L);
+        assertThat(sent.get(0).index().ifPrimaryTerm()).isEqualTo(1L);
+        assertThat(first.get().outcome()).isEqualTo(Outcome.INDEXED);
+        assertThat(second.get().outcome()).isEqualTo(Outcome.INDEXED);
+    }
+
+    @Test
+    void patchOfAMissingCourseIsNotFoundAndSendsNothing() throws Exception {
+        CompletableFuture<WriteResult> patch = buffer.patch("c1", Map.of("price", 12.5), 1L);
+
+        buffer.flush();
+
+        assertThat(patch.get().outcome()).isEqualTo(Outcome.NOT_FOUND);
+        assertThat(sent).isEmpty();
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void deleteReplacesAnyQueuedWrite() throws Exception {
+        CompletableFuture<WriteResult> upsert = buffer.upsert("c1", course("c1", "Chess", 10.0), 1L);
+        CompletableFuture<WriteResult> patch = buffer.patch("c2", Map.of("price", 1.0), 1L);
+        CompletableFuture<WriteResult> deleteUpsert = buffer.delete("c1", 2L);
+        CompletableFuture<WriteResult> deletePatch = buffer.delete("c2", 2L);
+
+        buffer.flush();
+
+        assertThat(sent).hasSize(2).allMatch(BulkOperation::isDelete);
+        assertThat(upsert.get().outcome()).isEqualTo(Outcome.DELETED);
+        assertThat(patch.get().outcome()).isEqualTo(Outcome.DELETED);
+        assertThat(deleteUpsert.get().outcome()).isEqualTo(Outcome.DELETED);
+        assertThat(deletePatch.get().outcome()).isEqualTo(Outcome.DELETED);
+    }
+
+    @Test
+    void patchAfterQueuedDeleteIsNotFound() throws Exception {
+        CompletableFuture<WriteResult> delete = buffer.delete("c1", 1L);
+        CompletableFuture<WriteResult> patch = buffer.patch("c1", Map.of("price", 1.0), 2L);
+
+        assertThat(patch.get().outcome()).isEqualTo(Outcome.NOT_FOUND);
+        buffer.flush();
+        assertThat(sent).singleElement().matches(BulkOperation::isDelete);
+        assertThat(delete.get().outcome()).isEqualTo(Outcome.DELETED);
+    }
+
+    @Test
+    void olderVersionBehindANewerQueuedWriteIsStale() throws Exception {
+        CompletableFuture<WriteResult> newer = buffer.upsert("c1", course("c1", "Chess", 10.0), 5L);
+        CompletableFuture<WriteResult> older = buffer.upsert("c1", course("c1", "Checkers", 8.0), 3L);
+
+        assertThat(older.get().outcome()).isEqualTo(Outcome.STALE);
+        buffer.flush();
+        assertThat(((CourseDocument) sent.get(0).index().document()).getTitle()).isEqualTo("Chess");
+        assertThat(newer.get().outcome()).isEqualTo(Outcome.INDEXED);
+    }
+
+    @Test
+    void versionConflictFromElasticsearchIsStale() throws Exception {
+        bulkStatus.put("c1", 409);
+        CompletableFuture<WriteResult> upsert = buffer.upsert("c1", course("c1", "Chess", 10.0), 1L);
+
+        buffer.flush();
+
+        assertThat(upsert.get().outcome()).isEqualTo(Outcome.STALE);
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void upsertWithMinAgeAboveMaxAgeIsRejected() {
+        CourseDocument course = course("c1", "Chess", 10.0);
+        course.setMinAge(12);
+        course.setMaxAge(8);
+
+        assertThatThrownBy(() -> buffer.upsert("c1", course, 1L)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void patchThatInvertsTheAgeRangeFailsAndSendsNothing() throws Exception {
+        CourseDocument course = course("c1", "Chess", 10.0);
+        course.setMinAge(6);
+        course.setMaxAge(8);
+        stored.put("c1", course);
+        CompletableFuture<WriteResult> patch = buffer.patch("c1", Map.of("minAge", 12), 2L);
+        CompletableFuture<WriteResult> other = buffer.upsert("c2", course("c2", "Go", 5.0), 1L);
+
+        buffer.flush();
+
+        assertThat(patch.get().outcome()).isEqualTo(Outcome.FAILED);
+        assertThat(patch.get().error()).contains("minAge 12 is greater than maxAge 8");
+        assertThat(sent).singleElement().matches(op -> op.index().id().equals("c2"));
+        assertThat(other.get().outcome()).isEqualTo(Outcome.INDEXED);
+    }
+
+    @Test
+    void patchOfACourseChangedSinceItWasReadIsAppliedAgain() throws Exception {
+        stored.put("c1", course("c1", "Chess", 10.0));
+        bulkStatus.put("c1", 409);
+        CompletableFuture<WriteResult> patch = buffer.patch("c1", Map.of("price", 12.5), 2L);
+
+        buffer.flush();
+        assertThat(patch).isNotDone();
+        // Another writer changed the title in between
+        stored.put("c1", course("c1", "Chess Club", 10.0));
+        storedSeqNo.put("c1", 8L);
+        bulkStatus.remove("c1");
+        buffer.flush();
+
+        assertThat(sent).hasSize(2);
+        CourseDocument document = (CourseDocument) sent.get(1).index().document();
+        assertThat(document.getTitle()).isEqualTo("Chess Club");
+        assertThat(document.getPrice()).isEqualTo(12.5);
+        assertThat(sent.get(1).index().ifSeqNo()).isEqualTo(8L);
+        assertThat(patch.get().outcome()).isEqualTo(Outcome.INDEXED);
+    }
+
+    @Test
+    void patchNotNewerThanTheStoredVersionIsStale() throws Exception {
+        stored.put("c1", course("c1", "Chess", 10.0));
+        CompletableFuture<WriteResult> patch = buffer.patch("c1", Map.of("price", 12.5), 1L);
+
+        buffer.flush();
+
+        assertThat(patch.get().outcome()).isEqualTo(Outcome.STALE);
+        assertThat(sent).isEmpty();
+    }
+
+    @Test
+    void pausedWritesAreSentOnResume() throws Exception {
+        buffer.pause();
+        CompletableFuture<WriteResult> upsert = buffer.upsert("c1", course("c1", "Chess", 10.0), 1L);
+
+        buffer.flush();
+        assertThat(sent).isEmpty();
+        buffer.resume();
+
+        assertThat(upsert.get(5, TimeUnit.SECONDS).outcome()).isEqualTo(Outcome.INDEXED);
+        assertThat(sent).hasSize(1);
+    }
+
+    @Test
+    void patchThatCannotBindIsRejectedUpFront() {
+        assertThatThrownBy(() -> buffer.patch("c1", Map.of("price", "abc"), 1L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid course fields");
+        assertThatThrownBy(() -> buffer.patch("c1", Map.of("minAge", 12, "maxAge", 8), 1L))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void transportFailureKeepsTheBatchQueued() throws Exception {
+        bulkFailures.set(1);
+        CompletableFuture<WriteResult> upsert = buffer.upsert("c1", course("c1", "Chess", 10.0), 1L);
+
+        assertThatThrownBy(() -> buffer.flush()).isInstanceOf(IOException.class);
+        assertThat(upsert).isNotDone();
+        CompletableFuture<WriteResult> patch = buffer.patch("c1", Map.of("price", 12.5), 2L);
+
+        buffer.flush();
+
+        assertThat(sent).singleElement().matches(op -> op.index().version() == 2L);
+        assertThat(((CourseDocument) sent.get(0).index().document()).getPrice()).isEqualTo(12.5);
+        assertThat(upsert.get().outcome()).isEqualTo(Outcome.INDEXED);
+        assertThat(patch.get().outcome()).isEqualTo(Outcome.INDEXED);
+    }
+
+    @Test
+    void rejectedItemIsRetriedAndFailsAfterMaxAttempts() throws Exception {
+        bulkStatus.put("c1", 429);
+        CompletableFuture<WriteResult> rejected = buffer.upsert("c1", course("c1", "Chess", 10.0), 1L);
+        CompletableFuture<WriteResult> accepted = buffer.upsert("c2", course("c2", "Go", 5.0), 1L);
+
+        buffer.flush();
+        assertThat(accepted.get().outcome()).isEqualTo(Outcome.INDEXED);
+        assertThat(rejected).isNotDone();
+        buffer.flush();
+        buffer.flush();
+
+        assertThat(sent).filteredOn(op -> op.index().id().equals("c1")).hasSize(3);
+        assertThatThrownBy(rejected::get).hasCauseInstanceOf(IOException.class);
+    }
+
+    @Test
+    void bulkBodyLeavesUnsetFieldsOut() throws Exception {
+        CourseDocument course = course("c1", "Chess", 10.0);
+        course.setAutocomplete(new Completion(new String[]{"Chess"}));
+        buffer.upsert("c1", course, 1L);
+
+        buffer.flush();
+
+        JsonpMapper mapper = new ElasticsearchConfig().elasticsearchJsonpMapper(new ObjectMapper(), new SimpleMeterRegistry());
+        String body = ndjson(requests.get(0), mapper, new StringBuilder()).toString();
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode action = new ObjectMapper().readTree(lines[0]);
+        assertThat(action.at("/index/_id").asText()).isEqualTo("c1");
+        assertThat(action.at("/index/version_type").asText()).isEqualTo("external");
+        JsonNode source = new ObjectMapper().readTree(lines[1]);
+        assertThat(source.get("autocomplete").toString()).isEqualTo("{\"input\":[\"Chess\"]}");
+        assertThat(source.has("description")).isFalse();
+        assertThat(body).doesNotContain("null");
+    }
+
+    // Flattens a bulk request the way the transport writes it: one JSON document per line
+    private static StringBuilder ndjson(NdJsonpSerializable value, JsonpMapper mapper, StringBuilder out) {
+        Iterator<?> parts = value._serializables();
+        while (parts.hasNext()) {
+            Object part = parts.next();
+            if (part instanceof NdJsonpSerializable nested && part != value) ndjson(nested, mapper, out);
+            else out.append(JsonpUtils.toJsonString(part, mapper)).append('\n');
+        }
+        return out;
+    }
+
+    private BulkResponseItem item(BulkOperation operation) {
+        boolean delete = operation.isDelete();
+        String id = delete ? operation.delete().id() : operation.index().id();
+        int status = bulkStatus.getOrDefault(id, delete ? 200 : 201);
+        return BulkResponseItem.of(i -> {
+            i.operationType(delete ? OperationType.Delete : OperationType.Index).index("courses").id(id).status(status);
+            if (status >= 300) i.error(e -> e.type("version_conflict_engine_exception").reason("version conflict"));
+            else i.result(delete ? "deleted" : "created");
+            return i;
+        });
+    }
+
+    private static CourseDocument course(String id, String title, double price) {
+        CourseDocument c = new CourseDocument();
+        c.setId(id);
+        c.setTitle(title);
+        c.setPrice(price);
+        return c;
+    }
+}
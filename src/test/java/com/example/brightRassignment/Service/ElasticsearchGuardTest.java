@@ -0,0 +1,87 @@
+package com.example.brightRassignment.Service;
+
+import com.example.brightRassignment.Service.ElasticsearchGuard.Bulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ElasticsearchGuardTest {
+
+    private final ElasticsearchGuard guard = new ElasticsearchGuard(new SimpleMeterRegistry(), 1,
+            1, Duration.ofSeconds(1), 1, Duration.ofSeconds(1), 2, Duration.ofSeconds(1), 1, Duration.ofMillis(300));
+
+    @Test
+    void searchIsRefusedWhenItsBulkheadIsFullButSuggestIsNot() throws Exception {
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> call(Bulkhead.SEARCH, () -> {
+            release.join();
+            return "first";
+        }));
+        awaitInFlight();
+
+        assertThatThrownBy(() -> guard.call(Bulkhead.SEARCH, () -> "second")).isInstanceOf(OverloadedException.class);
+        assertThat(guard.call(Bulkhead.SUGGEST, () -> "suggest")).isEqualTo("suggest");
+
+        release.complete(null);
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+    }
+
+    @Test
+    void openBreakerRefusesSearchesAndHoldsIngestUntilTheTrial() throws Exception {
+        assertThatThrownBy(() -> guard.call(Bulkhead.SEARCH, () -> {
+            throw new IOException("connection refused");
+        })).isInstanceOf(IOException.class);
+        assertThat(guard.breakerState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> guard.call(Bulkhead.SEARCH, () -> "refused")).isInstanceOf(OverloadedException.class);
+
+        AtomicInteger sent = new AtomicInteger();
+        long start = System.nanoTime();
+        String result = guard.callBlocking(Bulkhead.INGEST, () -> {
+            sent.incrementAndGet();
+            return "indexed";
+        });
+
+        assertThat(result).isEqualTo("indexed");
+        assertThat(sent).hasValue(1);
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+        assertThat(guard.breakerState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void badRequestsDoNotTripTheBreaker() {
+        assertThatThrownBy(() -> guard.call(Bulkhead.SEARCH, () -> {
+            throw new IllegalArgumentException("bad query");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(guard.breakerState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private <T> T call(Bulkhead bulkhead, SearchMetrics.Call<T> call) {
+        try {
+            return guard.call(bulkhead, call);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            try {
+                guard.call(Bulkhead.SEARCH, () -> "probe");
+            } catch (OverloadedException | IOException e) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("search never became busy");
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.brightRassignment.Service;
+
+import com.example.brightRassignment.Document.CourseDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class LocalSuggesterTest {
+
+    @Test
+    void normalizesLikeTheSimpleAnalyzer() {
+        assertThat(LocalSuggester.normalize("  Robotics-Club 101: Level 2 ")).isEqualTo("robotics club level");
+        assertThat(LocalSuggester.normalize("ÉCOLE d'Art")).isEqualTo("école d art");
+        assertThat(LocalSuggester.normalize(null)).isEmpty();
+    }
+
+    @Test
+    void equalWeightsReturnPrefixMatchesInKeyOrder() {
+        LocalSuggester.Index index = LocalSuggester.Index.build(Map.of(
+                "Robotics Lab", 1, "robot building", 1, "Roboto Fonts", 1, "Rowing", 1, "Art", 1));
+
+        assertThat(index.suggest("robo", 10)).containsExactly("robot building", "Robotics Lab", "Roboto Fonts");
+        assertThat(index.suggest("robo", 2)).containsExactly("robot building", "Robotics Lab");
+        assertThat(index.suggest("robotics l", 10)).containsExactly("Robotics Lab");
+        assertThat(index.suggest("z", 10)).isEmpty();
+        assertThat(index.suggest("robo", 0)).isEmpty();
+    }
+
+    @Test
+    void weightedInputsReturnTheHeaviestFirst() {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        weights.put("Chess Basics", 3);
+        weights.put("Chess Club", 10);
+        weights.put("Chemistry", 7);
+        weights.put("Chess Masters", 3);
+        weights.put("Cheese Making", 1);
+        weights.put("Choir", 50);
+        LocalSuggester.Index index = LocalSuggester.Index.build(weights);
+
+        assertThat(index.suggest("che", 3)).containsExactly("Chess Club", "Chemistry", "Chess Basics");
+        // Equal weights keep key order
+        assertThat(index.suggest("chess", 10)).containsExactly("Chess Club", "Chess Basics", "Chess Masters");
+        assertThat(index.suggest("che", 0)).isEmpty();
+    }
+
+    @Test
+    void weightedTopKMatchesAFullSort() {
+        Random random = new Random(42);
+        String[] stems = {"art", "arts", "astro", "bio", "biology", "chem", "chess", "code"};
+        Map<String, Integer> weights = new HashMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            weights.put(stems[random.nextInt(stems.length)] + " " + Integer.toString(i, 36).replaceAll("\\d", "x"),
+                    1 + random.nextInt(20));
+        }
+        LocalSuggester.Index index = LocalSuggester.Index.build(weights);
+
+        for (String prefix : List.of("", "a", "art", "arts x", "b", "bio", "ch", "chess", "code", "zzz")) {
+            for (int size : new int[] {1, 5, 10, 50}) {
+                assertThat(index.suggest(prefix, size)).as(prefix + " / " + size)
+                        .containsExactlyElementsOf(expected(weights, prefix, size));
+            }
+        }
+    }
+
+    @Test
+    void rebuildUsesCompletionInputsOrTheTitle() throws Exception {
+        CourseDocument weighted = new CourseDocument();
+        weighted.setTitle("Robotics");
+        Completion completion = new Completion(new String[]{"Robotics", "Robot Wars"});
+        completion.setWeight(5);
+        weighted.setAutocomplete(completion);
+        CourseDocument plain = new CourseDocument();
+        plain.setTitle("Rowing");
+        CourseDocument duplicate = new CourseDocument();
+        duplicate.setTitle("Robotics");
+
+        CourseCatalogReader reader = mock(CourseCatalogReader.class);
+        doAnswer(invocation -> {
+            Consumer<CourseDocument> consumer = invocation.getArgument(2);
+            List.of(plain, duplicate, weighted).forEach(consumer);
+            return null;
+        }).when(reader).forEach(eq(CourseDocument.class), anyList(), any());
+        LocalSuggester suggester = new LocalSuggester(reader, "local", Duration.ZERO);
+
+        suggester.rebuild();
+
+        assertThat(suggester.isActive()).isTrue();
+        // "Robotics" keeps the higher of its two weights
+        assertThat(suggester.suggest("Ro", 10)).containsExactly("Robot Wars", "Robotics", "Rowing");
+        assertThat(suggester.suggest("Rob", 1)).containsExactly("Robot Wars");
+    }
+
+    // Reference answer: every match in key order, then a stable sort by weight
+    private static List<String> expected(Map<String, Integer> weights, String prefix, int size) {
+        Comparator<String> keyOrder = Comparator.comparing(LocalSuggester::normalize).thenComparing(Comparator.naturalOrder());
+        return weights.keySet().stream()
+                .filter(text -> LocalSuggester.normalize(text).startsWith(prefix))
+                .sorted(keyOrder)
+                .sorted(Comparator.comparing(weights::get).reversed())
+                .limit(size)
+                .toList();
+    }
+}
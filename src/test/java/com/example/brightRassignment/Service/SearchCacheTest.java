@@ -0,0 +1,120 @@
+package com.example.brightRassignment.Service;
+
+import com.example.brightRassignment.Document.CourseDocument;
+import com.example.brightRassignment.config.JacksonConfig;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchCacheTest {
+
+    private static final TypeReference<String> STRING = new TypeReference<>() {};
+
+    private final ObjectMapper mapper = new JacksonConfig().objectMapper();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void indexChangeDropsEntriesAndWritesOnlyMoveTheGeneration() throws Exception {
+        SearchCache cache = cache(100, Duration.ofMinutes(1));
+        List<Object> before = cache.key("fuzzy", "chess", 0, 10);
+        assertThat(load(cache, before)).isEqualTo("value 1");
+        assertThat(load(cache, before)).isEqualTo("value 1");
+
+        cache.onCoursesWritten(new CoursesWrittenEvent(List.of("c1")));
+        List<Object> afterWrite = cache.key("fuzzy", "chess", 0, 10);
+        assertThat(afterWrite).isNotEqualTo(before);
+        assertThat(load(cache, afterWrite)).isEqualTo("value 2");
+        // The old entry ages out rather than being dropped; only new keys miss it
+        assertThat(cache.stats()).containsEntry("size", 2L);
+        assertThat(load(cache, before)).isEqualTo("value 1");
+
+        cache.onIndexChanged(new CourseIndexChangedEvent("alias swapped to courses-v2"));
+        assertThat(cache.stats()).containsEntry("size", 0L);
+        assertThat(cache.key("fuzzy", "chess", 0, 10)).isNotEqualTo(afterWrite);
+        assertThat(load(cache, afterWrite)).isEqualTo("value 3");
+    }
+
+    @Test
+    void blankAndMissingParametersShareAKey() {
+        SearchCache cache = cache(100, Duration.ofMinutes(1));
+
+        assertThat(cache.key("filtered", " ", null)).isEqualTo(cache.key("filtered", null, null));
+        assertThat(cache.key("filtered", " Math ")).isEqualTo(cache.key("filtered", "Math"));
+    }
+
+    @Test
+    void entriesExpireAfterTheTtl() throws Exception {
+        SearchCache cache = cache(100, Duration.ofMillis(50));
+        List<Object> key = cache.key("fuzzy", "chess");
+        load(cache, key);
+
+        Thread.sleep(100);
+
+        assertThat(load(cache, key)).isEqualTo("value 2");
+    }
+
+    @Test
+    void sizeBoundEvictsEntries() throws Exception {
+        SearchCache cache = cache(10, Duration.ofMinutes(1));
+        for (int i = 0; i < 50; i++) {
+            load(cache, cache.key("fuzzy", "q" + i));
+        }
+
+        // Caffeine evicts on a background thread
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((long) cache.stats().get("size") > 10 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat((long) cache.stats().get("size")).isLessThanOrEqualTo(10);
+        assertThat((long) cache.stats().get("evictions")).isGreaterThanOrEqualTo(40);
+    }
+
+    @Test
+    void cachedFullViewReadsBackIntoCourseDocuments() throws Exception {
+        SearchCache cache = cache(100, Duration.ofMinutes(1));
+        CourseDocument course = new CourseDocument();
+        course.setId("c1");
+        course.setTitle("Chess");
+        course.setMinAge(6);
+        course.setMaxAge(12);
+        course.setPrice(12.5);
+        course.setNextSessionDate(Instant.parse("2025-09-30T10:00:00Z"));
+        CourseIngestService.deriveFilterFields(course);
+        course.setAutocomplete(new Completion(new String[]{"Chess"}));
+        TypeReference<List<CourseDocument>> type = new TypeReference<>() {};
+        List<Object> key = cache.key("fuzzy", "chess");
+
+        cache.get(key, type, () -> List.of(course));
+        List<CourseDocument> cached = cache.get(key, type, () -> {
+            throw new AssertionError("should be served from the cache");
+        });
+
+        assertThat(cached).singleElement().satisfies(c -> {
+            assertThat(c).isNotSameAs(course);
+            assertThat(c.getTitle()).isEqualTo("Chess");
+            assertThat(c.getNextSessionDate()).isEqualTo(course.getNextSessionDate());
+            assertThat(c.getAutocomplete().getInput()).containsExactly("Chess");
+            assertThat(c.getAgeRange()).isEqualTo(new CourseDocument.AgeRange(6, 12));
+            assertThat(c.getAgeBands()).containsExactly("06-08", "09-12");
+            assertThat(c.getPriceBand()).isEqualTo("10-25");
+        });
+    }
+
+    private SearchCache cache(long maxEntries, Duration ttl) {
+        return new SearchCache(mapper, new SimpleMeterRegistry(), maxEntries, ttl, Duration.ofSeconds(1));
+    }
+
+    private String load(SearchCache cache, List<Object> key) throws Exception {
+        return cache.get(key, STRING, () -> "value " + loads.incrementAndGet());
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.brightRassignment.Service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.ErrorResponse;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.MultiMatchQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import co.elastic.clients.elasticsearch.core.OpenPointInTimeResponse;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.TotalHitsRelation;
+import co.elastic.clients.util.ObjectBuilder;
+import com.example.brightRassignment.Document.CourseDocument;
+import com.example.brightRassignment.Repository.CourseRepository;
+import com.example.brightRassignment.Service.ElasticsearchGuard.Bulkhead;
+import com.example.brightRassignment.support.SyntheticCourses;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SearchServiceTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final List<CourseDocument> catalog = SyntheticCourses.generate(500);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final ElasticsearchClient client = mock(ElasticsearchClient.class);
+    private ElasticsearchGuard guard;
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        // One failure opens the breaker for an hour; the service has no client, so any call that gets through fails
+        guard = new ElasticsearchGuard(registry, 1, 10, Duration.ofSeconds(1), 10, Duration.ofSeconds(1),
+                10, Duration.ofSeconds(1), 1, Duration.ofHours(1));
+        snapshot = new CatalogSnapshot(null, true, Duration.ZERO);
+    }
+
+    @Test
+    void shedSearchesAreAnsweredFromTheSnapshot() throws Exception {
+        snapshot.load(catalog);
+        SearchService service = service();
+        openBreaker();
+
+        List<CourseDocument> fuzzy = service.searchCoursesFuzzy("robot", null, null, null, null, null, null, null,
+                "priceAsc", 0, 10);
+        SearchService.RepoSearchResult<CourseDocument> filtered = service.searchCoursesFiltered(6, 12, "Science",
+                null, null, null, null, "upcoming", 0, 10);
+
+        assertThat(fuzzy).isNotEmpty().extracting(CourseDocument::getId).containsExactlyElementsOf(ids(
+                snapshot.search("robot", null, null, null, null, null, null, null, "priceAsc", 0, 10).getCourses()));
+        SearchService.RepoSearchResult<CourseDocument> expected = snapshot.search(null, 6, 12, "Science",
+                null, null, null, null, "upcoming", 0, 10);
+        assertThat(filtered.getTotal()).isEqualTo(expected.getTotal());
+        assertThat(filtered.getCourses()).extracting(CourseDocument::getId).containsExactlyElementsOf(ids(expected.getCourses()));
+        assertThat(service.getSuggestions("rob")).isEmpty();
+    }
+
+    @Test
+    void shedSearchFailsWhenThereIsNoSnapshot() {
+        SearchService service = service();
+        openBreaker();
+
+        assertThatThrownBy(() -> service.searchCoursesFuzzy("robot", null, null, null, null, null, null, null,
+                "upcoming", 0, 10)).isInstanceOf(OverloadedException.class);
+    }
+
+    private SearchService service() {
+        return new SearchService(mock(CourseRepository.class), mapper,
+                new SearchCache(mapper, registry, 100, Duration.ofMinutes(1), Duration.ofSeconds(1)),
+                new LocalSuggester(null, "elasticsearch", Duration.ZERO),
+                new SearchMetrics(registry), snapshot, guard, 3);
+    }
+
+    private void openBreaker() {
+        assertThatThrownBy(() -> guard.call(Bulkhead.SEARCH, () -> {
+            throw new IOException("connection refused");
+        })).isInstanceOf(IOException.class);
+    }
+
+    private static List<String> ids(List<CourseDocument> courses) {
+        return courses.stream().map(CourseDocument::getId).toList();
+    }
+
+    @Test
+    void ageFacetsShareTheSingleAgeRangeFilter() {
+        Map<String, List<Query>> clauses = SearchService.filterClauses(6, 12, "Science", null, 5.0, 20.0, null);
+
+        assertThat(clauses.get("age")).singleElement().satisfies(q ->
+                assertThat(q.range().field()).isEqualTo("ageRange"));
+        assertThat(clauses.get("price")).hasSize(2);
+        for (String facet : List.of("minAge", "maxAge", "ageBands")) {
+            assertThat(SearchService.filterKey(facet)).isEqualTo("age");
+            assertThat(SearchService.clausesExcept(clauses, facet))
+                    .containsExactlyElementsOf(concat(clauses.get("category"), clauses.get("price")));
+        }
+    }
+
+    @Test
+    void clausesExceptDropsOnlyTheFacetsOwnFilter() {
+        Map<String, List<Query>> clauses = SearchService.filterClauses(6, null, "Science", "Club", null, 20.0, null);
+
+        assertThat(SearchService.clausesExcept(clauses, null)).hasSize(4);
+        assertThat(SearchService.clausesExcept(clauses, "category"))
+                .containsExactlyElementsOf(concat(clauses.get("age"), clauses.get("type"), clauses.get("price")));
+        assertThat(SearchService.clausesExcept(clauses, "price"))
+                .containsExactlyElementsOf(concat(clauses.get("age"), clauses.get("category"), clauses.get("type")));
+        assertThat(SearchService.clausesExcept(clauses, "nextSessionDate")).hasSize(4);
+    }
+
+    @Test
+    void keywordFiltersIgnoreCase() {
+        Map<String, List<Query>> clauses = SearchService.filterClauses(null, null, "math", "club", null, null, null);
+
+        assertThat(clauses.get("category")).singleElement().satisfies(q -> {
+            assertThat(q.term().field()).isEqualTo("category");
+            assertThat(q.term().value().stringValue()).isEqualTo("math");
+            assertThat(q.term().caseInsensitive()).isTrue();
+        });
+        assertThat(clauses.get("type")).singleElement().satisfies(q -> assertThat(q.term().caseInsensitive()).isTrue());
+    }
+
+    @SafeVarargs
+    private static List<Query> concat(List<Query>... lists) {
+        return Stream.of(lists).flatMap(List::stream).toList();
+    }
+
+    @Test
+    void keywordQueryAddsFuzzyEditsOnlyWhenExactMatchesAreScarce() throws Exception {
+        SearchService service = service();
+        List<SearchRequest> requests = mockSearch(service, 2); // min-hits is 3
+
+        service.searchCoursesFuzzy("chess", null, null, "Games", null, null, null, null, "relevance", 0, 10);
+
+        assertThat(requests).hasSize(2);
+        BoolQuery exact = requests.get(0).query().bool();
+        assertThat(exact.filter()).singleElement().satisfies(f -> assertThat(f.term().field()).isEqualTo("category"));
+        BoolQuery keyword = exact.must().get(0).bool();
+        assertThat(keyword.minimumShouldMatch()).isEqualTo("1");
+        assertThat(keyword.should()).hasSize(3);
+        MultiMatchQuery bestFields = keyword.should().get(0).multiMatch();
+        assertThat(bestFields.fields()).containsExactly("title^3", "description");
+        assertThat(bestFields.type()).isEqualTo(TextQueryType.BestFields);
+        assertThat(bestFields.tieBreaker()).isEqualTo(0.3);
+        assertThat(keyword.should().get(1).match().field()).isEqualTo("title.shingle");
+        MultiMatchQuery prefix = keyword.should().get(2).multiMatch();
+        assertThat(prefix.fields()).containsExactly("title.prefix^2", "description.prefix^0.5");
+        assertThat(prefix.operator()).isEqualTo(Operator.And);
+        assertThat(keyword.should()).noneMatch(q -> q.isMultiMatch() && q.multiMatch().fuzziness() != null);
+
+        List<Query> fuzzy = requests.get(1).query().bool().must().get(0).bool().should();
+        // Query has no equals; its JSON form shows the exact clauses are kept as they were
+        assertThat(fuzzy).hasSize(4).extracting(Query::toString)
+                .startsWith(keyword.should().stream().map(Query::toString).toArray(String[]::new));
+        assertThat(fuzzy.get(3).multiMatch()).satisfies(mm -> {
+            assertThat(mm.fields()).containsExactly("title^1.5", "description^0.5");
+            assertThat(mm.fuzziness()).isEqualTo("AUTO");
+            assertThat(mm.prefixLength()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void enoughExactMatchesSkipTheFuzzyRetry() throws Exception {
+        SearchService service = service();
+        List<SearchRequest> requests = mockSearch(service, 3);
+
+        service.searchCoursesFuzzy("chess", null, null, null, null, null, null, null, "relevance", 0, 10);
+        assertThat(requests).hasSize(1);
+
+        // Without a keyword there is nothing to loosen
+        requests.clear();
+        mockSearch(service, 0);
+        service.searchCoursesFuzzy(" ", null, null, null, null, null, null, null, "relevance", 0, 10);
+        assertThat(requests).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<SearchRequest> mockSearch(SearchService service, long total) throws IOException {
+        ReflectionTestUtils.setField(service, "client", client);
+        List<SearchRequest> requests = new ArrayList<>();
+        when(client.search(any(Function.class), eq(CourseDocument.class))).thenAnswer(invocation -> {
+            Function<SearchRequest.Builder, ObjectBuilder<SearchRequest>> fn = invocation.getArgument(0);
+            requests.add(fn.apply(new SearchRequest.Builder()).build());
+            return SearchResponse.<CourseDocument>of(r -> r.took(1).timedOut(false)
+                    .shards(sh -> sh.total(1).successful(1).failed(0))
+                    .hits(h -> h.total(t -> t.value(total).relation(TotalHitsRelation.Eq)).hits(List.of())));
+        });
+        return requests;
+    }
+
+    @Test
+    void cursorPageSizeMustBePositive() {
+        SearchService service = service();
+
+        assertThatThrownBy(() -> service.searchCoursesCursor(null, null, null, null, null, null, null, null,
+                "upcoming", 0, "*")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void malformedCursorIsInvalid() {
+        SearchService service = service();
+
+        for (String cursor : List.of("not a cursor", encode("{\"searchAfter\":[1]}"), encode("[]"))) {
+            assertThatThrownBy(() -> service.searchCoursesCursor(null, null, null, null, null, null, null, null,
+                    "upcoming", 10, cursor)).as(cursor).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cursorOverAnExpiredPointInTimeIsGone() throws Exception {
+        SearchService service = service();
+        ReflectionTestUtils.setField(service, "client", client);
+        when(client.search(any(Function.class), eq(CourseDocument.class))).thenThrow(esError(404));
+        String cursor = encode("{\"pitId\":\"pit-1\",\"searchAfter\":[1700000000000,\"c1\"],\"fuzzy\":false}");
+
+        assertThatThrownBy(() -> service.searchCoursesCursor(null, null, null, null, null, null, null, null,
+                "upcoming", 10, cursor)).isInstanceOf(CursorExpiredException.class);
+
+        when(client.search(any(Function.class), eq(CourseDocument.class))).thenThrow(esError(400));
+        assertThatThrownBy(() -> service.searchCoursesCursor(null, null, null, null, null, null, null, null,
+                "upcoming", 10, cursor)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportPagesThroughThePointInTimeInGuardedBatches() throws Exception {
+        guard = spy(guard);
+        SearchService service = service();
+        List<SearchRequest> requests = mockExport(service, 2500);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = service.exportCourses(null, null, null, null, null, null, null, null, "upcoming",
+                List.of("id", "title"), out);
+
+        assertThat(rows).isEqualTo(2500);
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).hasSize(2500)
+                .startsWith("{\"id\":\"c0\",\"title\":\"Course 0\"}");
+        assertThat(requests).hasSize(3).allSatisfy(request -> {
+            assertThat(request.pit().id()).isEqualTo("pit-1");
+            assertThat(request.size()).isEqualTo(1000);
+            assertThat(request.source().filter().includes()).containsExactly("id", "title");
+        });
+        assertThat(requests.get(0).searchAfter()).isEmpty();
+        assertThat(requests.get(1).searchAfter()).extracting(FieldValue::longValue).containsExactly(999L);
+        assertThat(requests.get(2).searchAfter()).extracting(FieldValue::longValue).containsExactly(1999L);
+        // Opening the point in time and every batch take a search slot
+        verify(guard, times(4)).callBlocking(eq(Bulkhead.SEARCH), any());
+        verify(client).closePointInTime(any(Function.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportClosesThePointInTimeWhenTheClientGoesAway() throws Exception {
+        SearchService service = service();
+        List<SearchRequest> requests = mockExport(service, 2500);
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> service.exportCourses(null, null, null, null, null, null, null, null, "upcoming",
+                null, disconnected)).isInstanceOf(IOException.class);
+
+        assertThat(requests).hasSize(1);
+        verify(client).closePointInTime(any(Function.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<SearchRequest> mockExport(SearchService service, int matches) throws IOException {
+        ReflectionTestUtils.setField(service, "client", client);
+        when(client.openPointInTime(any(Function.class))).thenReturn(OpenPointInTimeResponse.of(o -> o.id("pit-1")));
+        List<SearchRequest> requests = new ArrayList<>();
+        when(client.search(any(Function.class), eq(ObjectNode.class))).thenAnswer(invocation -> {
+            Function<SearchRequest.Builder, ObjectBuilder<SearchRequest>> fn = invocation.getArgument(0);
+            SearchRequest request = fn.apply(new SearchRequest.Builder()).build();
+            requests.add(request);
+            int from = request.searchAfter().isEmpty() ? 0 : (int) request.searchAfter().get(0).longValue() + 1;
+            List<Hit<ObjectNode>> hits = new ArrayList<>();
+            for (int i = from; i < Math.min(from + request.size(), matches); i++) {
+                ObjectNode source = mapper.createObjectNode().put("id", "c" + i).put("title", "Course " + i);
+                long sort = i;
+                hits.add(Hit.of(h -> h.index("courses-v1").id(source.get("id").asText()).source(source).sort(FieldValue.of(sort))));
+            }
+            return SearchResponse.<ObjectNode>of(r -> r.took(1).timedOut(false).pitId("pit-1")
+                    .shards(sh -> sh.total(1).successful(1).failed(0))
+                    .hits(h -> h.hits(hits)));
+        });
+        return requests;
+    }
+
+    private static ElasticsearchException esError(int status) {
+        return new ElasticsearchException("search", ErrorResponse.of(r -> r
+                .status(status)
+                .error(e -> e.type("search_phase_execution_exception").reason("all shards failed"))));
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.brightRassignment.Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(Duration.ofSeconds(10));
+        List<Future<String>> calls = startCallers(flight, () -> {
+            loads.incrementAndGet();
+            return awaitRelease("result");
+        });
+
+        awaitWaiters(flight);
+        release.countDown();
+
+        for (Future<String> call : calls) {
+            assertThat(call.get(10, TimeUnit.SECONDS)).isEqualTo("result");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(flight.shared()).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void failureReachesEveryWaiter() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(Duration.ofSeconds(10));
+        List<Future<String>> calls = startCallers(flight, () -> {
+            loads.incrementAndGet();
+            awaitRelease(null);
+            throw new IOException("search failed");
+        });
+
+        awaitWaiters(flight);
+        release.countDown();
+
+        for (Future<String> call : calls) {
+            assertThatThrownBy(() -> call.get(10, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause().isInstanceOf(IOException.class).hasMessage("search failed");
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void waitersLoadThemselvesWhenTheLoaderIsInterrupted() throws Exception {
+        assertWaitersLoadThemselves(new InterruptedIOException("leader interrupted"));
+        assertWaitersLoadThemselves(new IOException(new InterruptedException()));
+        assertWaitersLoadThemselves(new IllegalStateException("bug in the loader"));
+    }
+
+    private void assertWaitersLoadThemselves(Exception leaderFailure) throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(Duration.ofSeconds(10));
+        CountDownLatch leaderRelease = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        List<Future<String>> results = startCallers(flight, () -> {
+            if (calls.getAndIncrement() > 0) return "own load";
+            try {
+                leaderRelease.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            if (leaderFailure instanceof IOException io) throw io;
+            throw (RuntimeException) leaderFailure;
+        });
+
+        awaitWaiters(flight);
+        leaderRelease.countDown();
+
+        int own = 0;
+        for (Future<String> result : results) {
+            try {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("own load");
+                own++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).as(leaderFailure.toString()).isSameAs(leaderFailure);
+            }
+        }
+        // Only the leader sees its own failure; everyone else got an answer
+        assertThat(own).as(leaderFailure.toString()).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void waiterGivesUpAfterMaxWait() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        Future<String> owner = executor.submit(() -> flight.run("key", () -> {
+            started.countDown();
+            return awaitRelease("late");
+        }));
+        started.await();
+
+        assertThatThrownBy(() -> flight.run("key", () -> "own load")).isInstanceOf(OverloadedException.class);
+
+        release.countDown();
+        assertThat(owner.get(10, TimeUnit.SECONDS)).isEqualTo("late");
+        // Nothing is remembered: the next caller loads again
+        assertThat(flight.run("key", () -> "fresh")).isEqualTo("fresh");
+    }
+
+    private List<Future<String>> startCallers(SingleFlight<String, String> flight, SearchCache.Loader<String> loader) {
+        List<Future<String>> calls = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            calls.add(executor.submit(() -> flight.run("key", loader)));
+        }
+        return calls;
+    }
+
+    private String awaitRelease(String value) throws IOException {
+        try {
+            release.await();
+            return value;
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+    // Every caller but the loader has joined the shared call before it is allowed to finish
+    private static void awaitWaiters(SingleFlight<String, String> flight) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (flight.shared() < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(flight.shared()).isEqualTo(CALLERS - 1);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.brightRassignment.support;
+
+import com.example.brightRassignment.Document.CourseDocument;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic catalog for benchmarks and load tests. The same seed and size always
+ * produce the same courses, so runs on different machines and releases are comparable.
+ */
+public final class SyntheticCourses {
+
+    public static final long DEFAULT_SEED = 42L;
+
+    private static final String[] CATEGORIES = {"Math", "Science", "Art", "Language", "Music",
+            "Computer Science", "Health", "Games", "Sports", "Dance", "Environment"};
+    private static final String[] TYPES = {"COURSE", "CLUB", "ONE_TIME"};
+    private static final String[] GRADES = {"1st–3rd", "3rd–5th", "6th–8th", "9th–12th", "All"};
+    private static final String[] ADJECTIVES = {"Beginner", "Advanced", "Creative", "Intro to", "Fun with",
+            "Applied", "Hands-on", "Weekend", "Intensive", "Junior"};
+    private static final String[] SUBJECTS = {"Fractions", "Robotics", "Watercolor", "Physics", "Writing",
+            "Chess", "Guitar", "Python", "Geometry", "Yoga", "Photography", "Astronomy", "Gardening",
+            "Public Speaking", "Web Development", "Hip Hop", "Clay Modeling", "Algebra", "Chemistry", "Drama"};
+    private static final String[] DETAILS = {"games and visuals", "projects and demos", "weekly practice",
+            "guided experiments", "small-group workshops", "real-world examples", "friendly competitions"};
+    private static final Instant EPOCH = Instant.parse("2025-09-01T00:00:00Z");
+
+    private SyntheticCourses() {}
+
+    public static List<CourseDocument> generate(int count) {
+        return generate(count, DEFAULT_SEED);
+    }
+
+    public static List<CourseDocument> generate(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<CourseDocument> courses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            courses.add(course(i, random));
+        }
+        return courses;
+    }
+
+    public static CourseDocument course(int i, SplittableRandom random) {
+        String subject = pick(SUBJECTS, random);
+        int minAge = 5 + random.nextInt(13);
+
+        CourseDocument c = new CourseDocument();
+        c.setId(String.format("course-%07d", i));
+        c.setTitle(pick(ADJECTIVES, random) + " " + subject);
+        c.setDescription(subject + " through " + pick(DETAILS, random) + ".");
+        c.setCategory(pick(CATEGORIES, random));
+        c.setType(pick(TYPES, random));
+        c.setGradeRange(pick(GRADES, random));
+        c.setMinAge(minAge);
+        c.setMaxAge(minAge + 2 + random.nextInt(random.nextInt(10) == 0 ? 45 : 6));
+        // A fifth of the catalog is free; the rest is priced in cents
+        c.setPrice(random.nextInt(5) == 0 ? 0.0 : (100 + random.nextInt(6000)) / 100.0);
+        c.setNextSessionDate(EPOCH.plus(Duration.ofMinutes(random.nextInt(180 * 24 * 4) * 15L)));
+        return c;
+    }
+
+    /** Subjects used in titles, handy for building realistic keyword and prefix queries. */
+    public static List<String> subjects() {
+        return List.of(SUBJECTS);
+    }
+
+    public static List<String> categories() {
+        return List.of(CATEGORIES);
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+}